@@ -0,0 +1,127 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
+
+/**
+ * Decodes the same BSON documents with the reflective POJO codecs and with the hand-written ones.
+ * The projected cases decode the fields the assignment pass reads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    @Param({"1000", "100000"})
+    private int documents;
+
+    private Codec<Task> pojoTaskCodec;
+    private Codec<Person> pojoPersonCodec;
+    private final TaskCodec taskCodec = new TaskCodec();
+    private final PersonCodec personCodec = new PersonCodec();
+
+    private List<byte[]> taskDocuments;
+    private List<byte[]> projectedTaskDocuments;
+    private List<byte[]> personDocuments;
+
+    @Setup
+    public void encodeDocuments() {
+        CodecRegistry pojoRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
+                fromProviders(PojoCodecProvider.builder().automatic(true).build()));
+        pojoTaskCodec = pojoRegistry.get(Task.class);
+        pojoPersonCodec = pojoRegistry.get(Person.class);
+
+        List<Person> persons = Workloads.persons(Math.max(1, documents / 10));
+        List<Task> tasks = Workloads.tasks(documents, persons);
+        taskDocuments = new ArrayList<>(tasks.size());
+        projectedTaskDocuments = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            taskCodec.generateIdIfAbsentFromDocument(task);
+            taskDocuments.add(encode(taskCodec, task));
+            projectedTaskDocuments.add(encode(taskCodec,
+                    new Task(task.getId(), task.getName(), null, null, false, task.getPersonAssignedId())));
+        }
+        personDocuments = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            personDocuments.add(encode(personCodec, person));
+        }
+    }
+
+    private static <T> byte[] encode(Codec<T> codec, T value) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, value, EncoderContext.builder().build());
+        }
+        return buffer.toByteArray();
+    }
+
+    private static <T> void decodeAll(Codec<T> codec, List<byte[]> documents, Blackhole blackhole) {
+        for (byte[] document : documents) {
+            try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(document))) {
+                blackhole.consume(codec.decode(reader, DECODER_CONTEXT));
+            }
+        }
+    }
+
+    @Benchmark
+    public void pojoTasks(Blackhole blackhole) {
+        decodeAll(pojoTaskCodec, taskDocuments, blackhole);
+    }
+
+    @Benchmark
+    public void codecTasks(Blackhole blackhole) {
+        decodeAll(taskCodec, taskDocuments, blackhole);
+    }
+
+    @Benchmark
+    public void pojoProjectedTasks(Blackhole blackhole) {
+        decodeAll(pojoTaskCodec, projectedTaskDocuments, blackhole);
+    }
+
+    @Benchmark
+    public void codecProjectedTasks(Blackhole blackhole) {
+        decodeAll(taskCodec, projectedTaskDocuments, blackhole);
+    }
+
+    @Benchmark
+    public void pojoPersons(Blackhole blackhole) {
+        decodeAll(pojoPersonCodec, personDocuments, blackhole);
+    }
+
+    @Benchmark
+    public void codecPersons(Blackhole blackhole) {
+        decodeAll(personCodec, personDocuments, blackhole);
+    }
+}
@@ -0,0 +1,149 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end service calls, either against an in-memory Mongo wire-protocol server or the in-memory
+ * storage engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final long NEVER_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param({"mongo", "memory"})
+    private String engine;
+
+    @Param({"100", "1000"})
+    private int persons;
+
+    @Param({"1000", "10000"})
+    private int tasks;
+
+    private MongoServer server;
+    private MongoClient client;
+    private AssignTasksServices assignTasksServices;
+    private AssignmentScheduler assignmentScheduler;
+    private TaskServices taskServices;
+    private PersonServices personServices;
+    private long created;
+
+    @Setup(Level.Trial)
+    public void startServices() {
+        TaskStore taskStore;
+        PersonStore personStore;
+        AssignmentLease assignmentLease;
+        if (engine.equals("memory")) {
+            taskStore = new InMemoryTaskStore(64);
+            personStore = new InMemoryPersonStore(64);
+            assignmentLease = new LocalAssignmentLease();
+        } else {
+            server = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = server.bind();
+            MongoClientFactory mongoClientFactory = new MongoClientFactory(new SimpleMeterRegistry(),
+                    "mongodb://" + address.getHostString() + ":" + address.getPort(), DBUtil.DATABASE_NAME,
+                    0, 100, 2, 120000, 0, 10000, 0, "", "primary", "acknowledged");
+            client = MongoClients.create(mongoClientFactory.createClientSettings());
+            MongoDatabase database = client.getDatabase(mongoClientFactory.getDatabaseName());
+            taskStore = new MongoTaskStore(database);
+            personStore = new MongoPersonStore(database);
+            assignmentLease = new MongoAssignmentLease(database, NEVER_MILLIS);
+        }
+
+        EntityCache<Person> personCache = new EntityCache<>(false, 0, Duration.ZERO);
+        EntityCache<Task> taskCache = new EntityCache<>(false, 0, Duration.ZERO);
+        AssignmentFeed assignmentFeed = new AssignmentFeed(new SimpleMeterRegistry(), 256, NEVER_MILLIS);
+        assignTasksServices = new AssignTasksServices(taskStore, personStore, personCache, taskCache,
+                assignmentLease, assignmentFeed, new SimpleMeterRegistry(), false, 0, 64);
+        IncrementalAssignTasksServices incrementalAssignTasksServices = new IncrementalAssignTasksServices(
+                taskStore, personStore, personCache, taskCache, assignmentFeed, false);
+        assignmentScheduler = new AssignmentScheduler(assignTasksServices,
+                new TasksCountReconciler(taskStore, personStore, personCache, assignmentLease, assignmentFeed),
+                NEVER_MILLIS, NEVER_MILLIS, 0);
+        taskServices = new TaskServices(taskStore, assignTasksServices, incrementalAssignTasksServices,
+                assignmentScheduler, taskCache, assignmentFeed);
+        personServices = new PersonServices(personStore, assignTasksServices, incrementalAssignTasksServices,
+                assignmentScheduler, personCache);
+
+        List<Person> seededPersons = Workloads.persons(persons);
+        personStore.insertAll(seededPersons);
+        taskStore.insertAll(Workloads.tasks(tasks, seededPersons));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServices() {
+        assignmentScheduler.shutdown();
+        if (client != null) {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Task createTask() {
+        return taskServices.createTask(new Task("bench-task-" + created++));
+    }
+
+    @Benchmark
+    public Task getTask() {
+        return taskServices.getTask("task-" + (created++ % tasks));
+    }
+
+    @Benchmark
+    public Person getPerson() {
+        return personServices.getPerson("person-" + (created++ % persons));
+    }
+
+    /**
+     * Description-only updates of random tasks from every core, which should scale with the thread count
+     * now that updates of different tasks no longer contend.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Task updateTaskConcurrently() {
+        Task task = taskServices.getTask("task-" + ThreadLocalRandom.current().nextInt(tasks));
+        task.setDescription("updated " + ThreadLocalRandom.current().nextInt());
+        task.setVersion(null);
+        return taskServices.updateTask(task.getName(), task);
+    }
+
+    @Benchmark
+    public Page<Task> getTasksPage() {
+        return taskServices.getTasksPage(null, Page.DEFAULT_SIZE);
+    }
+
+    @Benchmark
+    public boolean assignTasks() {
+        return assignTasksServices.assignTasks(true);
+    }
+}
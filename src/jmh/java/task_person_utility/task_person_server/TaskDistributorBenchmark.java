@@ -0,0 +1,58 @@
+package task_person_utility.task_person_server;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TaskDistributorBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int persons;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int tasks;
+
+    @Param({"false", "true"})
+    private boolean forced;
+
+    private AssignmentSnapshot snapshot;
+    private TaskDistributor distributor;
+    private int[] unassignedTasks;
+
+    @Setup(Level.Iteration)
+    public void createSnapshot() {
+        snapshot = Workloads.snapshot(persons, tasks);
+        distributor = new TaskDistributor(snapshot);
+        unassignedTasks = distributor.getTasksForDistribution(false);
+    }
+
+    @Benchmark
+    public AssignmentSnapshot distribute() {
+        distributor.distribute(forced);
+        return snapshot;
+    }
+
+    @Benchmark
+    public AssignmentSnapshot distributeTasks() {
+        double numberOfTasksPerAvailablePerson = Math.floor((tasks + 0.0) / Math.max(1, snapshot.getAvailableCount()));
+        distributor.distributeTasks(unassignedTasks, numberOfTasksPerAvailablePerson, forced);
+        return snapshot;
+    }
+}
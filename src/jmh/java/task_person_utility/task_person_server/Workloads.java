@@ -0,0 +1,46 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+final class Workloads {
+
+    private static final long SEED = 42L;
+    private static final double AVAILABLE_RATIO = 0.9;
+    private static final double ASSIGNED_RATIO = 0.5;
+
+    private Workloads() {
+    }
+
+    static List<Person> persons(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Person> persons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            persons.add(new Person(new ObjectId(), "person-" + i, random.nextDouble() < AVAILABLE_RATIO, 0));
+        }
+        return persons;
+    }
+
+    static List<Task> tasks(int count, List<Person> persons) {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Task task = new Task("task-" + i);
+            if (!persons.isEmpty() && random.nextDouble() < ASSIGNED_RATIO) {
+                Person person = persons.get(random.nextInt(persons.size()));
+                person.setTasksAssignedNumber(person.getTasksAssignedNumber() + 1);
+                task.setPersonAssignedId(person.getId());
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    static AssignmentSnapshot snapshot(int personCount, int taskCount) {
+        List<Person> persons = persons(personCount);
+        return new AssignmentSnapshot(persons, tasks(taskCount, persons));
+    }
+}
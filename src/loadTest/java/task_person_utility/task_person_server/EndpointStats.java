@@ -0,0 +1,100 @@
+package task_person_utility.task_person_server;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and error counts of one endpoint. Latencies are recorded in microseconds from the moment the
+ * request was due, not from when it was sent, so a stalled server shows up in the percentiles instead of
+ * silently lowering the request rate.
+ */
+final class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+    private Histogram histogram;
+    private long mongoCommandsPerCalibration;
+    private int calibrationRequests;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void record(long dueNanos, long completedNanos, boolean success) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(completedNanos - dueNanos);
+        recorder.recordValue(Math.min(Math.max(micros, 0), MAX_LATENCY_MICROS));
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops everything recorded so far, used after the warm-up.
+     */
+    void reset() {
+        recorder.reset();
+        errors.set(0);
+    }
+
+    void finish() {
+        histogram = recorder.getIntervalHistogram();
+    }
+
+    void setCalibration(long mongoCommands, int requests) {
+        mongoCommandsPerCalibration = mongoCommands;
+        calibrationRequests = requests;
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors.get());
+        summary.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+        summary.put("p50Ms", percentileMillis(50));
+        summary.put("p99Ms", percentileMillis(99));
+        summary.put("p999Ms", percentileMillis(99.9));
+        summary.put("maxMs", histogram.getMaxValue() / MICROS_PER_MILLI);
+        summary.put("mongoCommandsPerRequest", getMongoCommandsPerRequest());
+        return summary;
+    }
+
+    String formatRow(double seconds) {
+        return String.format("%-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %10.2f", name, histogram.getTotalCount(),
+                errors.get(), histogram.getTotalCount() / seconds, percentileMillis(50), percentileMillis(99),
+                percentileMillis(99.9), histogram.getMaxValue() / MICROS_PER_MILLI, getMongoCommandsPerRequest());
+    }
+
+    /**
+     * Writes the full percentile distribution in milliseconds, loadable by the HdrHistogram plotter.
+     */
+    void writeDistribution(Path directory) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hgrm")))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private double getMongoCommandsPerRequest() {
+        return calibrationRequests == 0 ? 0 : (double) mongoCommandsPerCalibration / calibrationRequests;
+    }
+}
@@ -0,0 +1,327 @@
+package task_person_utility.task_person_server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mongodb.client.MongoDatabase;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Open-model load test of the REST API. Starts the server against an in-memory Mongo, seeds it and sends
+ * a weighted mix of requests at Poisson-distributed arrival times, independent of how fast responses come
+ * back. Prints throughput and p50/p99/p99.9 latency per endpoint, writes the full HdrHistogram distribution
+ * of every endpoint plus a summary.json to the report directory, and measures the Mongo commands each
+ * endpoint costs in a sequential calibration run afterwards.
+ * <p>
+ * Settings are system properties, e.g. {@code ./gradlew loadTest -Dloadtest.rate=500 -Dloadtest.duration-s=120}:
+ * persons, tasks, rate (requests per second), warmup-s, duration-s, max-in-flight, calibration-requests,
+ * mix (weights such as {@code list=45,create=20,update=20,delete=10,assign=5}) and report-dir.
+ */
+public final class LoadTest {
+
+    private static final long SEED = 42L;
+    private static final int SEED_CHUNK_SIZE = 10_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long DRAIN_TIMEOUT_MILLIS = REQUEST_TIMEOUT.toMillis();
+    // Longer than assignment.scheduler.max-latency-ms, so passes triggered by a calibration run land in it
+    private static final long ASSIGNMENT_SETTLE_MILLIS = 3000;
+
+    private enum Operation {
+        LIST("tasks.list"),
+        CREATE("tasks.create"),
+        UPDATE("tasks.update"),
+        DELETE("tasks.delete"),
+        ASSIGN("tasks.assign");
+
+        private final String endpoint;
+
+        Operation(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private final int personCount = Integer.getInteger("loadtest.persons", 1000);
+    private final int taskCount = Integer.getInteger("loadtest.tasks", 10_000);
+    private final double rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-s", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-s", 60);
+    private final int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 2000);
+    private final int calibrationRequests = Integer.getInteger("loadtest.calibration-requests", 100);
+    private final Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest"));
+    private final Map<Operation, Integer> mix =
+            parseMix(System.getProperty("loadtest.mix", "list=45,create=20,update=20,delete=10,assign=5"));
+    private final int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final List<String> seededNames = new ArrayList<>();
+    private final ConcurrentLinkedDeque<String> deletableNames = new ConcurrentLinkedDeque<>();
+    private final AtomicLong createdTasks = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ExecutorService httpExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+    private final HttpClient httpClient = HttpClient.newBuilder().executor(httpExecutor).build();
+
+    private String baseUrl;
+    private MeterRegistry meterRegistry;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats(operation.endpoint));
+        }
+        MongoServer mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        String connectionString = "mongodb://" + address.getHostString() + ":" + address.getPort();
+
+        ConfigurableApplicationContext context = SpringApplication.run(TaskPersonServerApplication.class,
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + connectionString,
+                "--spring.data.mongodb.database=" + DBUtil.DATABASE_NAME,
+                "--assignment.change-stream.enabled=false",
+                "--logging.level.task_person_utility=WARN",
+                "--logging.level.org.mongodb.driver=WARN");
+        try {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            meterRegistry = context.getBean(MeterRegistry.class);
+            seed(context.getBean(MongoDatabase.class));
+
+            System.out.printf("Warming up for %d s at %.0f requests/s%n", warmupSeconds, rate);
+            drive(TimeUnit.SECONDS.toNanos(warmupSeconds));
+            stats.values().forEach(EndpointStats::reset);
+            dropped.set(0);
+
+            System.out.printf("Measuring for %d s at %.0f requests/s%n", durationSeconds, rate);
+            long commandsBefore = mongoCommands();
+            long start = System.nanoTime();
+            long sent = drive(TimeUnit.SECONDS.toNanos(durationSeconds));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double commandsPerRequest = sent == 0 ? 0 : (double) (mongoCommands() - commandsBefore) / sent;
+            stats.values().forEach(EndpointStats::finish);
+
+            calibrate();
+            report(seconds, commandsPerRequest);
+        } finally {
+            context.close();
+            mongoServer.shutdown();
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    private void seed(MongoDatabase database) {
+        Random random = new Random(SEED);
+        List<Person> persons = new ArrayList<>(personCount);
+        for (int i = 0; i < personCount; i++) {
+            persons.add(new Person(new ObjectId(), "load-person-" + i, random.nextDouble() < 0.9, 0));
+        }
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task("load-task-" + i);
+            if (!persons.isEmpty() && random.nextBoolean()) {
+                Person person = persons.get(random.nextInt(persons.size()));
+                person.setTasksAssignedNumber(person.getTasksAssignedNumber() + 1);
+                task.setPersonAssignedId(person.getId());
+            }
+            tasks.add(task);
+            seededNames.add(task.getName());
+        }
+        insertInChunks(database.getCollection("persons", Person.class)::insertMany, persons);
+        insertInChunks(database.getCollection("tasks", Task.class)::insertMany, tasks);
+
+        List<String> shuffled = new ArrayList<>(seededNames);
+        Collections.shuffle(shuffled, random);
+        deletableNames.addAll(shuffled);
+        System.out.printf("Seeded %d persons and %d tasks%n", personCount, taskCount);
+    }
+
+    private static <T> void insertInChunks(Consumer<List<T>> insert, List<T> documents) {
+        for (int from = 0; from < documents.size(); from += SEED_CHUNK_SIZE) {
+            insert.accept(documents.subList(from, Math.min(documents.size(), from + SEED_CHUNK_SIZE)));
+        }
+    }
+
+    /**
+     * Sends requests at exponentially distributed intervals for the given time and waits for the
+     * outstanding ones. Returns the number of requests sent.
+     */
+    private long drive(long durationNanos) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long start = System.nanoTime();
+        long due = start;
+        long sent = 0;
+        while (due - start < durationNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(random);
+            if (inFlight.get() >= maxInFlight) {
+                dropped.incrementAndGet();
+            } else {
+                send(operation, due, random);
+                sent++;
+            }
+            due += (long) (-Math.log(1 - random.nextDouble()) / rate * 1e9);
+        }
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (inFlight.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return sent;
+    }
+
+    private void send(Operation operation, long dueNanos, SplittableRandom random) {
+        EndpointStats endpointStats = stats.get(operation);
+        inFlight.incrementAndGet();
+        httpClient.sendAsync(request(operation, random), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    endpointStats.record(dueNanos, System.nanoTime(), error == null && response.statusCode() < 400);
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private HttpRequest request(Operation operation, SplittableRandom random) {
+        return switch (operation) {
+            case LIST -> HttpRequest.newBuilder(uri("/tasks/page?limit=100")).timeout(REQUEST_TIMEOUT).GET().build();
+            case CREATE -> {
+                String name = "load-created-" + createdTasks.incrementAndGet();
+                deletableNames.addLast(name);
+                yield json(uri("/tasks")).POST(taskBody(name, false)).build();
+            }
+            case UPDATE -> {
+                String name = seededNames.get(random.nextInt(seededNames.size()));
+                yield json(uri("/tasks/" + name)).PUT(taskBody(name, random.nextInt(10) == 0)).build();
+            }
+            case DELETE -> {
+                String name = deletableNames.pollFirst();
+                yield HttpRequest.newBuilder(uri("/tasks/" + (name == null ? "load-missing" : name)))
+                        .timeout(REQUEST_TIMEOUT).DELETE().build();
+            }
+            case ASSIGN -> HttpRequest.newBuilder(uri("/tasks/assign")).timeout(REQUEST_TIMEOUT).GET().build();
+        };
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher taskBody(String name, boolean done) {
+        return HttpRequest.BodyPublishers.ofString(String.format(
+                "{\"name\":\"%s\",\"description\":\"load test\",\"done\":%b}", name, done));
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty traffic mix");
+    }
+
+    /**
+     * Sends each mixed-in endpoint sequentially on an otherwise idle server and attributes the Mongo commands
+     * issued meanwhile, including those of the assignment passes the requests trigger.
+     */
+    private void calibrate() throws Exception {
+        if (calibrationRequests <= 0) {
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        Thread.sleep(ASSIGNMENT_SETTLE_MILLIS);
+        for (Operation operation : mix.keySet()) {
+            long before = mongoCommands();
+            for (int i = 0; i < calibrationRequests; i++) {
+                httpClient.send(request(operation, random), HttpResponse.BodyHandlers.discarding());
+            }
+            Thread.sleep(ASSIGNMENT_SETTLE_MILLIS);
+            stats.get(operation).setCalibration(mongoCommands() - before, calibrationRequests);
+        }
+    }
+
+    private long mongoCommands() {
+        return meterRegistry.find("mongodb.driver.commands").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private void report(double seconds, double commandsPerRequest) throws IOException {
+        System.out.printf("%n%-14s %9s %7s %10s %9s %9s %9s %9s %10s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p99 ms", "p99.9 ms", "max ms", "mongo/req");
+        Files.createDirectories(reportDir);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Operation operation : mix.keySet()) {
+            EndpointStats endpointStats = stats.get(operation);
+            System.out.println(endpointStats.formatRow(seconds));
+            endpointStats.writeDistribution(reportDir);
+            endpoints.put(endpointStats.getName(), endpointStats.summary(seconds));
+        }
+        System.out.printf("%nDropped %d requests over the in-flight limit, %.2f Mongo commands per request overall%n",
+                dropped.get(), commandsPerRequest);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("persons", personCount);
+        summary.put("tasks", taskCount);
+        summary.put("ratePerSecond", rate);
+        summary.put("durationSeconds", seconds);
+        summary.put("dropped", dropped.get());
+        summary.put("mongoCommandsPerRequest", commandsPerRequest);
+        summary.put("endpoints", endpoints);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDir.resolve("summary.json").toFile(), summary);
+        System.out.println("Reports written to " + reportDir.toAbsolutePath());
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split("=");
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no positive weights: " + spec);
+        }
+        return weights;
+    }
+}
@@ -1,40 +1,82 @@
 package task_person_utility.task_person_server;
 
 import com.mongodb.MongoException;
-import com.mongodb.client.FindIterable;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.Filters;
-
-import com.mongodb.client.model.FindOneAndUpdateOptions;
-import com.mongodb.client.model.ReturnDocument;
-import com.mongodb.client.model.Updates;
-import org.bson.conversions.Bson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 @Service
 public class AssignTasksServices {
 
-    private final MongoCollection<Task> tasksDB;
-    private final MongoCollection<Person> personsDB ;
+    static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private final TaskStore taskStore;
+    private final PersonStore personStore;
+    private final EntityCache<Person> personCache;
+    private final EntityCache<Task> taskCache;
+    private final AssignmentLease assignmentLease;
+    private final AssignmentFeed assignmentFeed;
+    private final StripedLocks personLocks;
+    private final StripedLocks taskLocks;
+    private final boolean partitioned;
+    private final ForkJoinPool assignmentPool;
+    private final Timer assignmentTimer;
+    private final Counter tasksMovedCounter;
+    private final Counter personsUpdatedCounter;
     private final Logger logger;
 
     @Autowired
-    public AssignTasksServices(MongoDatabase mongoDatabase){
-        tasksDB = mongoDatabase.getCollection("tasks", Task.class);
-        personsDB = mongoDatabase.getCollection("persons", Person.class);
+    public AssignTasksServices(TaskStore taskStore, PersonStore personStore,
+                               EntityCache<Person> personCache, EntityCache<Task> taskCache,
+                               AssignmentLease assignmentLease, AssignmentFeed assignmentFeed,
+                               MeterRegistry meterRegistry,
+                               @Value("${assignment.partitioned:false}") boolean partitioned,
+                               @Value("${assignment.parallelism:0}") int parallelism,
+                               @Value("${update.lock-stripes:64}") int lockStripes){
+        this.taskStore = taskStore;
+        this.personStore = personStore;
+        this.personCache = personCache;
+        this.taskCache = taskCache;
+        this.assignmentLease = assignmentLease;
+        this.assignmentFeed = assignmentFeed;
+        this.personLocks = new StripedLocks(lockStripes);
+        this.taskLocks = new StripedLocks(lockStripes);
+        this.partitioned = partitioned;
+        this.assignmentPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        assignmentTimer = Timer.builder("assignment.run")
+                .description("Duration of full assignment passes")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        tasksMovedCounter = meterRegistry.counter("assignment.tasks.moved");
+        personsUpdatedCounter = meterRegistry.counter("assignment.persons.updated");
         logger = Logger.getLogger(AssignTasksServices.class.getName());
     }
 
+    @PreDestroy
+    public void shutdown() {
+        assignmentPool.shutdown();
+    }
+
     private Logger getLogger() {
         return logger;
     }
@@ -44,232 +86,270 @@ public class AssignTasksServices {
     }
 
     public boolean assignTasks(boolean forced) {
-        boolean changed = false;
-
-        List<Person> availablePersons = getAvailablePersons();
-        List<Task> notDoneTasks = getNotDoneTasks(true);
-        if (!availablePersons.isEmpty() && !notDoneTasks.isEmpty()) {
-            double numberOfTasksPerAvailablePerson = Math.floor((notDoneTasks.size()+0.0) / (availablePersons.size()+0.0));
-
-            notDoneTasks = getNotDoneTasks(forced);
-            distributeTasks(availablePersons, notDoneTasks, numberOfTasksPerAvailablePerson);
+        return assignmentTimer.record(() -> runAssignment(forced));
+    }
 
-            Iterator<Person> notAvailablePersons = getAvailablePersons(false).iterator();
-            while (notAvailablePersons.hasNext()){
-                Person notAvailablePerson = notAvailablePersons.next();
-                List<Task> tasksForDist = findTasksWithThisPerson(notAvailablePerson);
-                distributeTasks(availablePersons, tasksForDist, numberOfTasksPerAvailablePerson, true);
+    private boolean runAssignment(boolean forced) {
+        long token = assignmentLease.tryAcquire();
+        if (token == AssignmentLease.NO_LEASE) {
+            if (getLogger().isLoggable(Level.INFO)) {
+                getLogger().log(Level.INFO, "Skipping assignment, another instance holds the lease");
             }
-
-            changed = true;
+            return false;
         }
+        try {
+            List<AssignmentSnapshot> snapshots = loadSnapshots();
+            if (snapshots == null) {
+                return false;
+            }
+            if (snapshots.size() == 1) {
+                return distributeAndSave(snapshots.get(0), forced, token);
+            }
 
-        fixAllPersonsTasksCount();
-
-        return changed;
-    }
-
-    private void fixAllPersonsTasksCount() {
-        Iterator<Person> persons = personsDB.find().iterator();
-        while(persons.hasNext()){
-            Person person = persons.next();
-            fixAPersonsTasksCount(person);
+            List<Callable<Boolean>> partitionRuns = new ArrayList<>(snapshots.size());
+            for (AssignmentSnapshot snapshot : snapshots) {
+                partitionRuns.add(() -> distributeAndSave(snapshot, forced, token));
+            }
+            boolean changed = false;
+            for (Future<Boolean> partitionRun : assignmentPool.invokeAll(partitionRuns)) {
+                changed |= partitionRun.get();
+            }
+            return changed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Partition assignment failed: ", e.getCause());
+            }
+            return false;
+        } finally {
+            assignmentLease.release(token);
         }
     }
 
-    private List<Person> getAvailablePersons() {
-        return getAvailablePersons(true);
+    private boolean distributeAndSave(AssignmentSnapshot snapshot, boolean forced, long token) {
+        new TaskDistributor(snapshot).distribute(forced);
+        return saveSnapshot(snapshot, token);
     }
 
-    private List<Person> getAvailablePersons(boolean available) {
-        List<Person> availablePersons = new ArrayList<>();
-        Bson findAvailable = Filters.eq("availability", available);
-        try (MongoCursor<Person> personCursor = personsDB.find(findAvailable).iterator()) {
-            while (personCursor.hasNext()) {
-                Person currentPerson = personCursor.next();
-                availablePersons.add(currentPerson);
-                logPerson(currentPerson);
-            }
+    /**
+     * Loads one snapshot of all persons and open tasks, or with assignment.partitioned one snapshot per
+     * partition that has both persons and open tasks.
+     */
+    private List<AssignmentSnapshot> loadSnapshots() {
+        List<Person> persons;
+        List<Task> notDoneTasks;
+        try {
+            persons = personStore.findAllForAssignment();
+            notDoneTasks = taskStore.findOpenForAssignment();
         } catch (MongoException me) {
             handleMongoException(me);
+            return null;
+        }
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Loaded %d persons and %d open tasks for assignment", persons.size(), notDoneTasks.size()));
+        }
+        if (!partitioned) {
+            return List.of(new AssignmentSnapshot(persons, notDoneTasks));
         }
-        return availablePersons;
-    }
-
-    private List<Task> getNotDoneTasks(boolean forced) {
-
-        List<Task> notDoneTasks = new ArrayList<>();
-        Task maxPersonTask = null;
-        int maxTasksCount = 0;
 
-        Bson findDone = Filters.eq("done", false);
-        try (MongoCursor<Task> taskCursor = tasksDB.find(findDone).iterator()) {
-            while (taskCursor.hasNext()) {
-                Task currentTask = taskCursor.next();
-                if (forced || (currentTask.getPersonAssigned() == null)) {
-                    notDoneTasks.add(currentTask);
-                }else{
-                    Iterator<Person> iterator = getRealPersonFromTask(currentTask);
-                    if (!iterator.hasNext()){
-                        notDoneTasks.add(currentTask);
-                    }else{
-                        Person person = iterator.next();
-                        if (maxTasksCount < person.getTasksAssignedNumber()) {
-                            maxTasksCount = person.getTasksAssignedNumber();
-                            maxPersonTask = currentTask;
-                        }
-                    }
-                }
-                logTask(currentTask);
+        Map<String, List<Person>> personsByPartition = new HashMap<>();
+        for (Person person : persons) {
+            personsByPartition.computeIfAbsent(person.getPartition(), key -> new ArrayList<>()).add(person);
+        }
+        Map<String, List<Task>> tasksByPartition = new HashMap<>();
+        for (Task task : notDoneTasks) {
+            tasksByPartition.computeIfAbsent(task.getPartition(), key -> new ArrayList<>()).add(task);
+        }
+        List<AssignmentSnapshot> snapshots = new ArrayList<>();
+        personsByPartition.forEach((partition, partitionPersons) -> {
+            List<Task> partitionTasks = tasksByPartition.get(partition);
+            if (partitionTasks != null) {
+                snapshots.add(new AssignmentSnapshot(partitionPersons, partitionTasks));
             }
-            if (0 < maxTasksCount) {
-                notDoneTasks.add(maxPersonTask);
+        });
+        return snapshots;
+    }
+
+    private boolean saveSnapshot(AssignmentSnapshot snapshot, long token) {
+        List<Task> changedTasks = snapshot.getChangedTasks();
+        Map<ObjectId, Integer> countDeltas = new HashMap<>(snapshot.getForeignCountDeltas());
+        for (Person person : snapshot.getChangedPersons()) {
+            countDeltas.merge(person.getId(), snapshot.getCountDelta(person), Integer::sum);
+        }
+        if (!assignmentLease.isHeld(token)) {
+            if (getLogger().isLoggable(Level.WARNING)) {
+                getLogger().log(Level.WARNING, "Dropping assignment results, the lease expired during the pass");
             }
+            return false;
+        }
+
+        long assigned;
+        try {
+            assigned = taskStore.setAssignees(changedTasks, token);
+            personStore.incrementCounts(countDeltas, token);
         } catch (MongoException me) {
             handleMongoException(me);
+            return false;
+        } finally {
+            changedTasks.forEach(task -> taskCache.invalidate(task.getName()));
+            snapshot.getChangedPersons().forEach(person -> personCache.invalidate(person.getName()));
+            if (!snapshot.getForeignCountDeltas().isEmpty()) {
+                personCache.invalidateAll();
+            }
         }
-        return notDoneTasks;
-    }
-
-    private Iterator<Person> getRealPersonFromTask(Task currentTask) {
-        Person personForCheck = currentTask.getPersonAssigned();
-        Bson personExists = Filters.eq("name",personForCheck.getName());
-        FindIterable<Person> existingPersons = personsDB.find(personExists);
-        return existingPersons.iterator();
-    }
-
-    private void distributeTasks(List<Person> availablePersons, List<Task> tasks, double numberOfTasksPerAvailablePerson) {
-        distributeTasks( availablePersons, tasks,
-                numberOfTasksPerAvailablePerson, false);
-    }
-
-    private void distributeTasks(List<Person> availablePersons, List<Task> tasks,
-                                 double numberOfTasksPerAvailablePerson, boolean forced) {
-        for (Task task : tasks) {
-            findAPersonToAssignATaskTo(availablePersons, numberOfTasksPerAvailablePerson, task, forced);
+        publishChanges(changedTasks, assigned, countDeltas.keySet());
+        tasksMovedCounter.increment(changedTasks.size());
+        personsUpdatedCounter.increment(countDeltas.size());
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Assignment moved %d tasks and updated %d persons", changedTasks.size(), countDeltas.size()));
         }
+        return !changedTasks.isEmpty() || !countDeltas.isEmpty();
     }
 
-    private boolean findAPersonToAssignATaskTo(List<Person> availablePersons, double numberOfTasksPerAvailablePerson, Task task, boolean forced) {
-        boolean foundMin = false;
-        if (!availablePersons.isEmpty()) {
-            Person minTasksPerson = availablePersons.get(0);
-            int minTasksNumber=minTasksPerson.getTasksAssignedNumber();
-
-            for (Person person : availablePersons) {
-                int taskAssignNumber = person.getTasksAssignedNumber();
-                if ((taskAssignNumber <= minTasksNumber) && (forced || (taskAssignNumber < numberOfTasksPerAvailablePerson))) {
-                    foundMin = true;
-                    minTasksPerson = person;
-                    minTasksNumber=taskAssignNumber;
+    /**
+     * Publishes only what was written: when some reassignments were fenced off, the tasks are read back and
+     * only those holding the written assignee are published, and counts are always the ones stored now
+     * rather than the snapshot's plus the delta.
+     */
+    private void publishChanges(List<Task> changedTasks, long assigned, Set<ObjectId> countedPersons) {
+        if (!assignmentFeed.hasSubscribers()) {
+            return;
+        }
+        try {
+            if (assigned == changedTasks.size()) {
+                changedTasks.forEach(assignmentFeed::taskReassigned);
+            } else {
+                Map<String, Task> stored = taskStore.findByNames(changedTasks.stream().map(Task::getName).toList());
+                for (Task task : changedTasks) {
+                    Task current = stored.get(task.getName());
+                    if (current != null && Objects.equals(current.getPersonAssignedId(), task.getPersonAssignedId())) {
+                        assignmentFeed.taskReassigned(current);
+                    }
                 }
             }
-            if (foundMin) {
-                assignTaskToPerson(task, minTasksPerson);
+            for (Person person : personStore.findByIds(countedPersons, List.of("name", "tasksAssignedNumber")).values()) {
+                assignmentFeed.personCountChanged(person);
             }
+        } catch (MongoException me) {
+            handleMongoException(me);
         }
-        return foundMin;
     }
 
-    private void assignTaskToPerson(Task task, Person newPerson) {
-        Iterator<Person> oldPersonIterator = getRealPersonFromTask(task);
-        task.setPersonAssigned(newPerson);
-        onlyUpdateTask(task.getName(),task);
-
-        if (oldPersonIterator.hasNext()){
-            fixAPersonsTasksCount(oldPersonIterator.next());
+    private void handleMongoException(MongoException me) {
+        if (getLogger().isLoggable(Level.SEVERE)) {
+            getLogger().log(Level.SEVERE, "Storage operation failed: ", me);
         }
-        fixAPersonsTasksCount(newPerson);
     }
 
-    private void fixAPersonsTasksCount(Person person) {
-        List<Task> tasks = findTasksWithThisPerson(person);
-        person.setTasksAssignedNumber(tasks.size());
-        onlyUpdatePerson(person.getName(),person);
+    public Person onlyUpdatePerson(String name, Person person) {
+        VersionedUpdate<Person> update = updatePersonVersioned(name, person);
+        return update == null ? null : update.after();
     }
 
-    private List<Task> findTasksWithThisPerson(Person person) {
-        List<Task> tasks = new ArrayList<>();
-
-        Bson filterPersonExists = Filters.exists("personAssigned");
-        FindIterable<Task> tasksWithPersons = tasksDB.find(filterPersonExists);
-
-        try (MongoCursor<Task> cursor = tasksWithPersons.iterator()) {
-            while (cursor.hasNext()) {
-                Task currentTask = cursor.next();
-                if (currentTask.getPersonAssigned().getName().compareTo(person.getName()) == 0){
-                    tasks.add(currentTask);
+    /**
+     * Writes the fields the caller changed and nothing else; the task count belongs to the assignment and is
+     * ignored here. Updates of the same name in this instance take turns on a striped lock, so the store
+     * guard only fails on a race with another instance or an assignment pass, which is retried.
+     * A version sent by the caller has to match the stored one, otherwise the update fails with a
+     * {@link VersionConflictException}.
+     */
+    VersionedUpdate<Person> updatePersonVersioned(String name, Person person) {
+        if (person.getName() == null) {
+            person.setName(name);
+        }
+        ReentrantLock lock = personLocks.lockFor(name);
+        lock.lock();
+        try {
+            for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+                Person current = personStore.findByName(name, null);
+                if (current == null) {
+                    return null;
                 }
-                if (getLogger().isLoggable(Level.INFO)) {
-                    getLogger().log(Level.INFO, String.format("%s is in DB%n", currentTask.getName()));
+                checkExpectedVersion(name, person.getVersion(), current.getVersion());
+                Person updatedPerson = personStore.updateChangedFields(current, person);
+                if (updatedPerson != null) {
+                    personCache.invalidate(name);
+                    personCache.invalidate(updatedPerson.getName());
+                    return new VersionedUpdate<>(current, updatedPerson);
                 }
             }
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to find any tasks in MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to update person in the store due to an error: ", me);
             }
+            return null;
+        } finally {
+            lock.unlock();
         }
-
-        return tasks;
-    }
-
-    private void logPerson(Person person) {
-        if (getLogger().isLoggable(Level.INFO)) {
-            getLogger().log(Level.INFO, String.format("%s is in DB%n", person.getName()));
-        }
+        throw conflict(name);
     }
 
-    private void logTask(Task task) {
-        if (getLogger().isLoggable(Level.INFO)) {
-            getLogger().log(Level.INFO, String.format("%s is in DB%n", task.getName()));
-        }
+    public Task onlyUpdateTask(String name, Task task) {
+        VersionedUpdate<Task> update = updateTaskVersioned(name, task);
+        return update == null ? null : update.before();
     }
 
-    private void handleMongoException(MongoException me) {
-        if (getLogger().isLoggable(Level.SEVERE)) {
-            getLogger().log(Level.SEVERE, "MongoDB operation failed: ", me);
+    /**
+     * Writes the fields the caller changed and nothing else, serialized per name like
+     * {@link #updatePersonVersioned}. A version sent by the caller has to match the stored one, otherwise
+     * the update fails with a {@link VersionConflictException}.
+     * <p>
+     * Like the task count of a person, the assignee belongs to the assignment: it is only written when the
+     * caller names one and sends the version it read, so a body echoed from an older read neither undoes a
+     * reassignment made since nor unassigns the task. A reassignment by a concurrent pass then fails the
+     * version check.
+     */
+    VersionedUpdate<Task> updateTaskVersioned(String name, Task task) {
+        if (task.getName() == null) {
+            task.setName(name);
         }
-    }
-
-    public Person onlyUpdatePerson(String name, Person person) {
-        Person updatedPerson = null;
-        Bson filter = Filters.eq("name", name);
-        Bson update = Updates.combine(
-                Updates.set("name", person.getName()),
-                Updates.set("availability", person.getAvailability()),
-                Updates.set("tasksAssignedNumber", person.getTasksAssignedNumber())
-        );
-        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+        boolean reassign = task.getPersonAssignedId() != null && task.getVersion() != null;
+        ReentrantLock lock = taskLocks.lockFor(name);
+        lock.lock();
         try {
-            updatedPerson = personsDB.findOneAndUpdate(filter, update, options);
+            for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+                Task current = taskStore.findByName(name, null);
+                if (current == null) {
+                    return null;
+                }
+                checkExpectedVersion(name, task.getVersion(), current.getVersion());
+                if (!reassign) {
+                    task.setPersonAssignedId(current.getPersonAssignedId());
+                }
+                Task updatedTask = taskStore.updateChangedFields(current, task);
+                if (updatedTask != null) {
+                    taskCache.invalidate(name);
+                    taskCache.invalidate(task.getName());
+                    if (updatedTask != current) {
+                        assignmentFeed.taskUpdated(current, updatedTask);
+                    }
+                    if (getLogger().isLoggable(Level.INFO)) {
+                        getLogger().log(Level.INFO, String.format("Updated document with name: %s", name));
+                    }
+                    return new VersionedUpdate<>(current, updatedTask);
+                }
+            }
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to update person in MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to update Task in the store due to an error: ", me);
             }
+            return null;
+        } finally {
+            lock.unlock();
         }
-        return updatedPerson;
+        throw conflict(name);
     }
 
-    public Task onlyUpdateTask(String name, Task task) {
-        Bson filter = Filters.eq("name", name);
-        Bson updates = Updates.combine(
-                Updates.set("name", task.getName()),
-                Updates.set("description", task.getDescription()),
-                Updates.set("dateOfCreation", task.getDateOfCreation()),
-                Updates.set("done", task.getDone()),
-                Updates.set("personAssigned", task.getPersonAssigned())
-        );
-        try {
-            Task updatedTask = tasksDB.findOneAndUpdate(filter, updates);
-            if (updatedTask != null && getLogger().isLoggable(Level.INFO)) {
-                getLogger().log(Level.INFO, String.format("Updated document with name: %s", name));
-            }
-            return updatedTask;
-        } catch (MongoException me) {
-            if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to update Task in MongoDB due to an error: ", me);
-            }
-            return null;
+    private static void checkExpectedVersion(String name, Long expected, Long current) {
+        if (expected != null && !expected.equals(current)) {
+            throw new VersionConflictException(String.format("%s is at version %s, not %d", name, current, expected));
         }
     }
+
+    private static VersionConflictException conflict(String name) {
+        return new VersionConflictException(String.format("%s kept changing concurrently, giving up after %d attempts",
+                name, MAX_UPDATE_ATTEMPTS));
+    }
 }
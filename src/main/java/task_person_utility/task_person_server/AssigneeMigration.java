@@ -0,0 +1,149 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves tasks written before the assignee became an id from the embedded personAssigned document to
+ * personAssignedId. Runs in batches on the assignment scheduler thread once the application is ready,
+ * so the server keeps serving while old documents are rewritten.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "mongo", matchIfMissing = true)
+public class AssigneeMigration {
+
+    private static final String LEGACY_FIELD = "personAssigned";
+    private static final String LEGACY_INDEX = "done_personAssigned";
+
+    private final MongoCollection<Document> tasksDB;
+    private final MongoCollection<Document> personsDB;
+    private final AssignmentScheduler assignmentScheduler;
+    private final int batchSize;
+    private final Logger logger;
+
+    @Autowired
+    public AssigneeMigration(MongoDatabase mongoDatabase, AssignmentScheduler assignmentScheduler,
+                             @Value("${migration.assignee.batch-size:1000}") int batchSize) {
+        tasksDB = mongoDatabase.getCollection("tasks");
+        personsDB = mongoDatabase.getCollection("persons");
+        this.assignmentScheduler = assignmentScheduler;
+        this.batchSize = Math.max(1, batchSize);
+        logger = Logger.getLogger(AssigneeMigration.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        assignmentScheduler.execute("Assignee migration", this::migrate);
+    }
+
+    public int migrate() {
+        int migrated = 0;
+        try {
+            int batch;
+            do {
+                batch = migrateBatch();
+                migrated += batch;
+            } while (batch == batchSize);
+            dropLegacyIndex();
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to migrate task assignees due to an error: ", me);
+            }
+        }
+        if (migrated > 0) {
+            assignmentScheduler.requestReconcile();
+            if (getLogger().isLoggable(Level.INFO)) {
+                getLogger().log(Level.INFO, String.format("Migrated the assignee of %d tasks", migrated));
+            }
+        }
+        return migrated;
+    }
+
+    private int migrateBatch() {
+        Bson legacy = Filters.exists(LEGACY_FIELD);
+        List<Document> tasks = tasksDB.find(legacy)
+                .projection(Projections.include(LEGACY_FIELD, "personAssignedId"))
+                .limit(batchSize)
+                .into(new ArrayList<>());
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, ObjectId> idsByName = resolveIdsByName(tasks);
+        List<WriteModel<Document>> writes = new ArrayList<>(tasks.size());
+        for (Document task : tasks) {
+            ObjectId personId = task.getObjectId("personAssignedId");
+            Document embedded = task.get(LEGACY_FIELD, Document.class);
+            if (personId == null && embedded != null) {
+                personId = embedded.getObjectId("_id");
+                if (personId == null) {
+                    personId = idsByName.get(embedded.getString("name"));
+                }
+            }
+            Bson update = personId == null
+                    ? Updates.unset(LEGACY_FIELD)
+                    : Updates.combine(Updates.set("personAssignedId", personId), Updates.unset(LEGACY_FIELD));
+            writes.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", task.get("_id")), legacy),
+                    ChangeStreamWatcher.serverWrite(update)));
+        }
+        tasksDB.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        return tasks.size();
+    }
+
+    private Map<String, ObjectId> resolveIdsByName(List<Document> tasks) {
+        Set<String> names = new HashSet<>();
+        for (Document task : tasks) {
+            Document embedded = task.get(LEGACY_FIELD, Document.class);
+            if (task.get("personAssignedId") == null && embedded != null && embedded.getObjectId("_id") == null
+                    && embedded.getString("name") != null) {
+                names.add(embedded.getString("name"));
+            }
+        }
+        Map<String, ObjectId> idsByName = new HashMap<>();
+        if (names.isEmpty()) {
+            return idsByName;
+        }
+        for (Document person : personsDB.find(Filters.in("name", names)).projection(Projections.include("name"))) {
+            idsByName.put(person.getString("name"), person.getObjectId("_id"));
+        }
+        return idsByName;
+    }
+
+    private void dropLegacyIndex() {
+        for (Document index : tasksDB.listIndexes()) {
+            if (LEGACY_INDEX.equals(index.getString("name"))) {
+                tasksDB.dropIndex(LEGACY_INDEX);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package task_person_utility.task_person_server;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.bson.types.ObjectId;
+
+/**
+ * Compact change notification pushed to feed subscribers. Ids are hex strings; tasksAssignedNumber is
+ * only set on person events and left out when the writer applied a delta without reading the new value.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AssignmentEvent {
+
+    public enum Type {
+        TASK_CREATED,
+        TASK_REASSIGNED,
+        TASK_COMPLETED,
+        TASK_DELETED,
+        PERSON_COUNT_CHANGED
+    }
+
+    private final Type type;
+    private final String id;
+    private final String name;
+    private final String personAssignedId;
+    private final Integer tasksAssignedNumber;
+
+    public AssignmentEvent(Type type, String id, String name, String personAssignedId, Integer tasksAssignedNumber) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.personAssignedId = personAssignedId;
+        this.tasksAssignedNumber = tasksAssignedNumber;
+    }
+
+    static AssignmentEvent ofTask(Type type, Task task) {
+        return new AssignmentEvent(type, toHex(task.getId()), task.getName(), toHex(task.getPersonAssignedId()), null);
+    }
+
+    static AssignmentEvent ofPersonCount(ObjectId personId, String name, Integer tasksAssignedNumber) {
+        return new AssignmentEvent(Type.PERSON_COUNT_CHANGED, toHex(personId), name, null, tasksAssignedNumber);
+    }
+
+    private static String toHex(ObjectId id) {
+        return id == null ? null : id.toHexString();
+    }
+
+    /**
+     * Whether the event concerns the given person: one of its tasks, or its own count.
+     */
+    boolean concerns(String personId) {
+        return type == Type.PERSON_COUNT_CHANGED ? personId.equals(id) : personId.equals(personAssignedId);
+    }
+
+    // Getters
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPersonAssignedId() {
+        return personAssignedId;
+    }
+
+    public Integer getTasksAssignedNumber() {
+        return tasksAssignedNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "AssignmentEvent{" +
+                "type=" + type +
+                ", id='" + id + '\'' +
+                ", name='" + name + '\'' +
+                ", personAssignedId='" + personAssignedId + '\'' +
+                ", tasksAssignedNumber=" + tasksAssignedNumber +
+                '}';
+    }
+}
@@ -0,0 +1,138 @@
+package task_person_utility.task_person_server;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Pushes task and person changes to dashboards as server-sent events instead of having them poll the
+ * collections. Writers publish after a successful write; nothing is allocated while nobody listens.
+ * <p>
+ * Each subscriber gets its filter applied on the publishing thread and its own bounded buffer behind it,
+ * so a stalled client never holds up writers or other clients. A subscriber whose buffer overflows is
+ * sent a final {@value #EVICTED_EVENT} event and disconnected; it is expected to reload a page and
+ * subscribe again.
+ * <p>
+ * Spring MVC writes an event stream through an SseEmitter of its own that never times out, so the feed
+ * needs no change to the async request timeout of the other endpoints.
+ */
+@Component
+public class AssignmentFeed {
+
+    static final String EVICTED_EVENT = "evicted";
+
+    private final Sinks.Many<AssignmentEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final Duration heartbeatInterval;
+    private final Counter evictionsCounter;
+
+    @Autowired
+    public AssignmentFeed(MeterRegistry meterRegistry,
+                          @Value("${feed.buffer-size:256}") int bufferSize,
+                          @Value("${feed.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.heartbeatInterval = Duration.ofMillis(Math.max(1, heartbeatMillis));
+        Gauge.builder("assignment.feed.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                .description("Open assignment feed connections")
+                .register(meterRegistry);
+        evictionsCounter = meterRegistry.counter("assignment.feed.evictions");
+    }
+
+    /**
+     * Events of the given types (all when empty) that concern the given person (everyone when null).
+     */
+    public Flux<ServerSentEvent<AssignmentEvent>> subscribe(Set<AssignmentEvent.Type> types, String personId) {
+        if (personId != null && !ObjectId.isValid(personId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid person id: " + personId);
+        }
+        Predicate<AssignmentEvent> filter = event -> (types == null || types.isEmpty() || types.contains(event.getType()))
+                && (personId == null || event.concerns(personId));
+        Flux<ServerSentEvent<AssignmentEvent>> events = sink.asFlux()
+                .filter(filter)
+                .onBackpressureBuffer(bufferSize, dropped -> { }, BufferOverflowStrategy.ERROR)
+                .map(event -> ServerSentEvent.builder(event).event(event.getType().name()).build())
+                .onErrorResume(Exceptions::isOverflow, e -> {
+                    evictionsCounter.increment();
+                    return Flux.just(ServerSentEvent.<AssignmentEvent>builder().event(EVICTED_EVENT).build());
+                });
+        // Comment lines keep idle connections from being closed by proxies
+        Flux<ServerSentEvent<AssignmentEvent>> heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<AssignmentEvent>builder().comment("").build());
+        return Flux.merge(events, heartbeats)
+                .takeUntil(event -> EVICTED_EVENT.equals(event.event()));
+    }
+
+    public void taskCreated(Task task) {
+        if (hasSubscribers()) {
+            publish(AssignmentEvent.ofTask(AssignmentEvent.Type.TASK_CREATED, task));
+        }
+    }
+
+    public void taskReassigned(Task task) {
+        if (hasSubscribers()) {
+            publish(AssignmentEvent.ofTask(AssignmentEvent.Type.TASK_REASSIGNED, task));
+        }
+    }
+
+    /**
+     * Publishes a completion or a reassignment; other edits of a task are not part of the feed.
+     */
+    public void taskUpdated(Task oldTask, Task newTask) {
+        if (!hasSubscribers()) {
+            return;
+        }
+        if (!oldTask.getDone() && newTask.getDone()) {
+            publish(AssignmentEvent.ofTask(AssignmentEvent.Type.TASK_COMPLETED, newTask));
+        } else if (!Objects.equals(oldTask.getPersonAssignedId(), newTask.getPersonAssignedId())) {
+            publish(AssignmentEvent.ofTask(AssignmentEvent.Type.TASK_REASSIGNED, newTask));
+        }
+    }
+
+    public void taskDeleted(Task task) {
+        if (hasSubscribers()) {
+            publish(AssignmentEvent.ofTask(AssignmentEvent.Type.TASK_DELETED, task));
+        }
+    }
+
+    public void personCountChanged(Person person) {
+        if (hasSubscribers()) {
+            publish(AssignmentEvent.ofPersonCount(person.getId(), person.getName(), person.getTasksAssignedNumber()));
+        }
+    }
+
+    /**
+     * For writers that applied a delta without reading back the new count.
+     */
+    public void personCountChanged(ObjectId personId, String name, Integer tasksAssignedNumber) {
+        if (hasSubscribers()) {
+            publish(AssignmentEvent.ofPersonCount(personId, name, tasksAssignedNumber));
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return sink.currentSubscriberCount() > 0;
+    }
+
+    private void publish(AssignmentEvent event) {
+        // The sink rejects concurrent emissions instead of serializing them
+        synchronized (sink) {
+            sink.tryEmitNext(event);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package task_person_utility.task_person_server;
+
+/**
+ * Lets one instance at a time run an assignment pass or a reconciliation. Every acquisition hands out a
+ * new, larger fencing token; stores stamp it into the documents a pass writes and skip documents already
+ * stamped by a newer holder, so a node whose lease expired mid-pass cannot overwrite its successor's work.
+ */
+public interface AssignmentLease {
+
+    long NO_LEASE = -1;
+
+    /**
+     * Returns the fencing token of the acquired lease, or {@link #NO_LEASE} when another holder has it.
+     */
+    long tryAcquire();
+
+    boolean isHeld(long token);
+
+    void release(long token);
+}
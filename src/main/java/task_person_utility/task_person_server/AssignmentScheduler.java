@@ -0,0 +1,183 @@
+package task_person_utility.task_person_server;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs full assignment passes on a single background thread.
+ * Triggers that arrive while a pass is pending are merged into it; the pass starts once no trigger
+ * has arrived for the debounce interval, and never later than the max latency after the first trigger.
+ * Count reconciliation runs on the same thread so it never interleaves with an assignment pass.
+ */
+@Component
+public class AssignmentScheduler {
+
+    private final AssignTasksServices assignTasksServices;
+    private final TasksCountReconciler tasksCountReconciler;
+    private final ScheduledExecutorService executor;
+    private final long debounceNanos;
+    private final long maxLatencyNanos;
+    private final Logger logger;
+
+    private final AtomicLong queuedRuns = new AtomicLong();
+    private final AtomicLong mergedRuns = new AtomicLong();
+    private final AtomicLong executedRuns = new AtomicLong();
+
+    private final Object lock = new Object();
+    private boolean scheduled;
+    private boolean pendingForced;
+    private boolean pendingReconcile;
+    private long firstTriggerNanos;
+    private long dueNanos;
+
+    @Autowired
+    public AssignmentScheduler(AssignTasksServices assignTasksServices,
+                               TasksCountReconciler tasksCountReconciler,
+                               @Value("${assignment.scheduler.debounce-ms:200}") long debounceMillis,
+                               @Value("${assignment.scheduler.max-latency-ms:2000}") long maxLatencyMillis,
+                               @Value("${assignment.reconcile.interval-ms:300000}") long reconcileIntervalMillis) {
+        this.assignTasksServices = assignTasksServices;
+        this.tasksCountReconciler = tasksCountReconciler;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(debounceMillis, maxLatencyMillis));
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "assignment-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.logger = Logger.getLogger(AssignmentScheduler.class.getName());
+        if (reconcileIntervalMillis > 0) {
+            executor.scheduleWithFixedDelay(this::runReconcile, reconcileIntervalMillis, reconcileIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    public boolean requestAssignment() {
+        return requestAssignment(false);
+    }
+
+    public boolean requestAssignment(boolean forced) {
+        return requestAssignment(forced, false);
+    }
+
+    /**
+     * Requests a pass that first recomputes the stored counts, for changes whose count deltas are unknown
+     * such as writes made directly to the database.
+     */
+    public boolean requestReconciledAssignment() {
+        return requestAssignment(false, true);
+    }
+
+    private boolean requestAssignment(boolean forced, boolean reconcile) {
+        synchronized (lock) {
+            queuedRuns.incrementAndGet();
+            long now = System.nanoTime();
+            if (!scheduled) {
+                scheduled = true;
+                pendingForced = forced;
+                pendingReconcile = reconcile;
+                firstTriggerNanos = now;
+                dueNanos = now + debounceNanos;
+                executor.schedule(this::runPending, debounceNanos, TimeUnit.NANOSECONDS);
+            } else {
+                mergedRuns.incrementAndGet();
+                pendingForced |= forced;
+                pendingReconcile |= reconcile;
+                dueNanos = Math.min(now + debounceNanos, firstTriggerNanos + maxLatencyNanos);
+            }
+        }
+        return true;
+    }
+
+    private void runPending() {
+        boolean forced;
+        boolean reconcile;
+        synchronized (lock) {
+            long remaining = dueNanos - System.nanoTime();
+            if (remaining > 0) {
+                executor.schedule(this::runPending, remaining, TimeUnit.NANOSECONDS);
+                return;
+            }
+            forced = pendingForced;
+            reconcile = pendingReconcile;
+            scheduled = false;
+        }
+        if (reconcile) {
+            runReconcile();
+        }
+        try {
+            assignTasksServices.assignTasks(forced);
+        } catch (RuntimeException e) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Assignment run failed: ", e);
+            }
+        }
+        executedRuns.incrementAndGet();
+    }
+
+    public boolean requestReconcile() {
+        executor.execute(this::runReconcile);
+        return true;
+    }
+
+    private void runReconcile() {
+        runGuarded("Reconciliation", tasksCountReconciler::reconcile);
+    }
+
+    /**
+     * Runs a maintenance job on the scheduler thread, so it never interleaves with an assignment pass.
+     */
+    public void execute(String name, Runnable job) {
+        executor.execute(() -> runGuarded(name, job));
+    }
+
+    private void runGuarded(String name, Runnable job) {
+        try {
+            job.run();
+        } catch (RuntimeException e) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, name + " run failed: ", e);
+            }
+        }
+    }
+
+    public long getQueuedRuns() {
+        return queuedRuns.get();
+    }
+
+    public long getMergedRuns() {
+        return mergedRuns.get();
+    }
+
+    public long getExecutedRuns() {
+        return executedRuns.get();
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("queued", getQueuedRuns());
+        stats.put("merged", getMergedRuns());
+        stats.put("executed", getExecutedRuns());
+        return stats;
+    }
+}
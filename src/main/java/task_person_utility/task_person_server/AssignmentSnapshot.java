@@ -0,0 +1,163 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory view of the persons and open tasks used by a single assignment run.
+ * All moves are applied here first and written back to Mongo in one batch per collection;
+ * person counters are written as deltas so concurrent $inc updates are not overwritten.
+ * Persons are addressed by slot, available persons first, and tasks by their index in the open-task list,
+ * so the hot path of a run works on primitive arrays instead of hashing ids.
+ */
+class AssignmentSnapshot {
+
+    static final int NO_SLOT = -1;
+
+    private final List<Person> persons;
+    private final int availableCount;
+    private final Map<ObjectId, Integer> slotsById;
+    private final int[] storedCounts;
+    private final int[] counts;
+    private final List<Task> notDoneTasks;
+    private final int[] taskSlots;
+    private final boolean[] changedTasks;
+    private final Map<Integer, ObjectId> foreignAssignees = new HashMap<>();
+    private final Map<ObjectId, Integer> foreignCountDeltas = new HashMap<>();
+
+    AssignmentSnapshot(List<Person> persons, List<Task> notDoneTasks) {
+        this.persons = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            if (person.getAvailability()) {
+                this.persons.add(person);
+            }
+        }
+        availableCount = this.persons.size();
+        for (Person person : persons) {
+            if (!person.getAvailability()) {
+                this.persons.add(person);
+            }
+        }
+
+        slotsById = new HashMap<>(persons.size() * 2);
+        storedCounts = new int[persons.size()];
+        for (int slot = 0; slot < this.persons.size(); slot++) {
+            Person person = this.persons.get(slot);
+            slotsById.put(person.getId(), slot);
+            storedCounts[slot] = person.getTasksAssignedNumber();
+        }
+        counts = storedCounts.clone();
+
+        this.notDoneTasks = notDoneTasks;
+        taskSlots = new int[notDoneTasks.size()];
+        changedTasks = new boolean[notDoneTasks.size()];
+        for (int task = 0; task < taskSlots.length; task++) {
+            ObjectId personAssignedId = notDoneTasks.get(task).getPersonAssignedId();
+            Integer slot = personAssignedId == null ? null : slotsById.get(personAssignedId);
+            taskSlots[task] = slot == null ? NO_SLOT : slot;
+            if (personAssignedId != null && slot == null) {
+                foreignAssignees.put(task, personAssignedId);
+            }
+        }
+    }
+
+    List<Person> getAvailablePersons() {
+        return persons.subList(0, availableCount);
+    }
+
+    List<Person> getNotAvailablePersons() {
+        return persons.subList(availableCount, persons.size());
+    }
+
+    List<Task> getNotDoneTasks() {
+        return notDoneTasks;
+    }
+
+    int getTaskCount() {
+        return taskSlots.length;
+    }
+
+    int getAvailableCount() {
+        return availableCount;
+    }
+
+    boolean isAvailable(int slot) {
+        return slot < availableCount;
+    }
+
+    /**
+     * Slot of the person the task at the given index is assigned to, or {@link #NO_SLOT}.
+     */
+    int getPersonSlot(int task) {
+        return taskSlots[task];
+    }
+
+    int getCount(int slot) {
+        return counts[slot];
+    }
+
+    Person getRealPersonFromTask(Task task) {
+        ObjectId personAssignedId = task.getPersonAssignedId();
+        if (personAssignedId == null) {
+            return null;
+        }
+        Integer slot = slotsById.get(personAssignedId);
+        return slot == null ? null : persons.get(slot);
+    }
+
+    void moveTask(int task, int newSlot) {
+        int oldSlot = taskSlots[task];
+        if (oldSlot == newSlot) {
+            return;
+        }
+        if (oldSlot != NO_SLOT) {
+            counts[oldSlot]--;
+        } else {
+            ObjectId foreignAssignee = foreignAssignees.remove(task);
+            if (foreignAssignee != null) {
+                foreignCountDeltas.merge(foreignAssignee, -1, Integer::sum);
+            }
+        }
+        counts[newSlot]++;
+        taskSlots[task] = newSlot;
+        notDoneTasks.get(task).setPersonAssignedId(persons.get(newSlot).getId());
+        changedTasks[task] = true;
+    }
+
+    List<Task> getChangedTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (int task = 0; task < changedTasks.length; task++) {
+            if (changedTasks[task]) {
+                tasks.add(notDoneTasks.get(task));
+            }
+        }
+        return tasks;
+    }
+
+    List<Person> getChangedPersons() {
+        List<Person> changedPersons = new ArrayList<>();
+        for (int slot = 0; slot < persons.size(); slot++) {
+            if (counts[slot] != storedCounts[slot]) {
+                changedPersons.add(persons.get(slot));
+            }
+        }
+        return changedPersons;
+    }
+
+    /**
+     * Count changes of persons outside this snapshot, such as the owner in another partition of a task
+     * that moved into this one.
+     */
+    Map<ObjectId, Integer> getForeignCountDeltas() {
+        return foreignCountDeltas;
+    }
+
+    int getCountDelta(Person person) {
+        int slot = slotsById.get(person.getId());
+        return counts[slot] - storedCounts[slot];
+    }
+}
@@ -0,0 +1,49 @@
+package task_person_utility.task_person_server;
+
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    private final String name;
+    private final Status status;
+    private final String error;
+
+    public BatchItemResult(String name, Status status, String error) {
+        this.name = name;
+        this.status = status;
+        this.error = error;
+    }
+
+    public BatchItemResult(String name, Status status) {
+        this(name, status, null);
+    }
+
+    // Getters
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchItemResult{" +
+                "name='" + name + '\'' +
+                ", status=" + status +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
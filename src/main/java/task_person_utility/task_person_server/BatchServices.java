@@ -0,0 +1,280 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Batch create/update/delete of tasks and persons.
+ * Each chunk is written with one batch write of the store (insertMany/bulkWrite/deleteMany on MongoDB),
+ * counters are adjusted with one batch per chunk, and a single assignment pass is requested once the
+ * whole batch is done.
+ */
+@Service
+public class BatchServices {
+
+    private final TaskStore taskStore;
+    private final PersonStore personStore;
+    final AssignmentScheduler assignmentScheduler;
+    private final EntityCache<Person> personCache;
+    private final EntityCache<Task> taskCache;
+    private final AssignmentFeed assignmentFeed;
+    private final int chunkSize;
+    private final Logger logger;
+
+    @Autowired
+    public BatchServices(TaskStore taskStore, PersonStore personStore, AssignmentScheduler assignmentScheduler,
+                         EntityCache<Person> personCache, EntityCache<Task> taskCache, AssignmentFeed assignmentFeed,
+                         @Value("${batch.chunk-size:1000}") int chunkSize) {
+        this.taskStore = taskStore;
+        this.personStore = personStore;
+        this.assignmentScheduler = assignmentScheduler;
+        this.personCache = personCache;
+        this.taskCache = taskCache;
+        this.assignmentFeed = assignmentFeed;
+        this.chunkSize = Math.max(1, chunkSize);
+        logger = Logger.getLogger(BatchServices.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    public List<BatchItemResult> createTasks(List<Task> tasks) {
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        for (List<Task> chunk : chunks(tasks)) {
+            List<BatchItemResult> chunkResults = insertChunk(taskStore::insertAll, chunk, Task::getName);
+            Map<ObjectId, Integer> countDeltas = new HashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunkResults.get(i).getStatus() == BatchItemResult.Status.CREATED) {
+                    addCountDelta(countDeltas, chunk.get(i), 1);
+                    assignmentFeed.taskCreated(chunk.get(i));
+                }
+            }
+            applyCountDeltas(countDeltas);
+            results.addAll(chunkResults);
+        }
+        return finishBatch("tasks created", results);
+    }
+
+    public List<BatchItemResult> updateTasks(List<Task> tasks) {
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        for (List<Task> chunk : chunks(tasks)) {
+            Map<String, Task> oldTasks = findTasks(chunk.stream().map(Task::getName).toList());
+            List<Task> writes = new ArrayList<>();
+            List<Integer> writeIndexes = new ArrayList<>();
+            BatchItemResult[] chunkResults = new BatchItemResult[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                Task task = chunk.get(i);
+                if (!oldTasks.containsKey(task.getName())) {
+                    chunkResults[i] = new BatchItemResult(task.getName(), BatchItemResult.Status.NOT_FOUND);
+                    continue;
+                }
+                writes.add(task);
+                writeIndexes.add(i);
+            }
+            Map<Integer, String> errors = taskStore.updateAllByName(writes);
+            Map<ObjectId, Integer> countDeltas = new HashMap<>();
+            for (int w = 0; w < writeIndexes.size(); w++) {
+                int i = writeIndexes.get(w);
+                Task task = chunk.get(i);
+                if (errors.containsKey(w)) {
+                    chunkResults[i] = new BatchItemResult(task.getName(), BatchItemResult.Status.FAILED, errors.get(w));
+                } else {
+                    Task oldTask = oldTasks.get(task.getName());
+                    chunkResults[i] = new BatchItemResult(task.getName(), BatchItemResult.Status.UPDATED);
+                    if (task.getPersonAssignedId() == null) {
+                        task.setPersonAssignedId(oldTask.getPersonAssignedId());
+                    }
+                    addCountDelta(countDeltas, oldTask, -1);
+                    addCountDelta(countDeltas, task, 1);
+                    task.setId(oldTask.getId());
+                    assignmentFeed.taskUpdated(oldTask, task);
+                }
+                taskCache.invalidate(task.getName());
+            }
+            applyCountDeltas(countDeltas);
+            results.addAll(List.of(chunkResults));
+        }
+        return finishBatch("tasks updated", results);
+    }
+
+    public List<BatchItemResult> deleteTasks(List<String> names) {
+        List<BatchItemResult> results = new ArrayList<>(names.size());
+        for (List<String> chunk : chunks(names)) {
+            Map<String, Task> oldTasks = findTasks(chunk);
+            boolean deleted = deleteMany(taskStore::deleteByNames, chunk);
+            Map<ObjectId, Integer> countDeltas = new HashMap<>();
+            for (String name : chunk) {
+                Task oldTask = oldTasks.get(name);
+                if (oldTask == null) {
+                    results.add(new BatchItemResult(name, BatchItemResult.Status.NOT_FOUND));
+                } else if (!deleted) {
+                    results.add(new BatchItemResult(name, BatchItemResult.Status.FAILED, "delete failed"));
+                } else {
+                    results.add(new BatchItemResult(name, BatchItemResult.Status.DELETED));
+                    addCountDelta(countDeltas, oldTask, -1);
+                    assignmentFeed.taskDeleted(oldTask);
+                }
+                taskCache.invalidate(name);
+            }
+            applyCountDeltas(countDeltas);
+        }
+        return finishBatch("tasks deleted", results);
+    }
+
+    public List<BatchItemResult> createPersons(List<Person> persons) {
+        List<BatchItemResult> results = new ArrayList<>(persons.size());
+        for (List<Person> chunk : chunks(persons)) {
+            chunk.forEach(person -> person.setTasksAssignedNumber(0));
+            results.addAll(insertChunk(personStore::insertAll, chunk, Person::getName));
+        }
+        return finishBatch("persons created", results);
+    }
+
+    public List<BatchItemResult> updatePersons(List<Person> persons) {
+        List<BatchItemResult> results = new ArrayList<>(persons.size());
+        for (List<Person> chunk : chunks(persons)) {
+            Set<String> existingNames = findPersonNames(chunk.stream().map(Person::getName).toList());
+            List<Person> writes = new ArrayList<>();
+            List<Integer> writeIndexes = new ArrayList<>();
+            BatchItemResult[] chunkResults = new BatchItemResult[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                Person person = chunk.get(i);
+                if (!existingNames.contains(person.getName())) {
+                    chunkResults[i] = new BatchItemResult(person.getName(), BatchItemResult.Status.NOT_FOUND);
+                    continue;
+                }
+                writes.add(person);
+                writeIndexes.add(i);
+            }
+            Map<Integer, String> errors = personStore.updateAvailabilityByName(writes);
+            for (int w = 0; w < writeIndexes.size(); w++) {
+                int i = writeIndexes.get(w);
+                String name = chunk.get(i).getName();
+                chunkResults[i] = errors.containsKey(w)
+                        ? new BatchItemResult(name, BatchItemResult.Status.FAILED, errors.get(w))
+                        : new BatchItemResult(name, BatchItemResult.Status.UPDATED);
+                personCache.invalidate(name);
+            }
+            results.addAll(List.of(chunkResults));
+        }
+        return finishBatch("persons updated", results);
+    }
+
+    public List<BatchItemResult> deletePersons(List<String> names) {
+        List<BatchItemResult> results = new ArrayList<>(names.size());
+        for (List<String> chunk : chunks(names)) {
+            Set<String> existingNames = findPersonNames(chunk);
+            boolean deleted = deleteMany(personStore::deleteByNames, chunk);
+            for (String name : chunk) {
+                if (!existingNames.contains(name)) {
+                    results.add(new BatchItemResult(name, BatchItemResult.Status.NOT_FOUND));
+                } else if (!deleted) {
+                    results.add(new BatchItemResult(name, BatchItemResult.Status.FAILED, "delete failed"));
+                } else {
+                    results.add(new BatchItemResult(name, BatchItemResult.Status.DELETED));
+                }
+                personCache.invalidate(name);
+            }
+        }
+        return finishBatch("persons deleted", results);
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private <T> List<BatchItemResult> insertChunk(Function<List<T>, Map<Integer, String>> insertAll, List<T> chunk,
+                                                  Function<T, String> nameOf) {
+        Map<Integer, String> errors = insertAll.apply(chunk);
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String name = nameOf.apply(chunk.get(i));
+            results.add(errors.containsKey(i)
+                    ? new BatchItemResult(name, BatchItemResult.Status.FAILED, errors.get(i))
+                    : new BatchItemResult(name, BatchItemResult.Status.CREATED));
+        }
+        return results;
+    }
+
+    private boolean deleteMany(Consumer<List<String>> deleteByNames, List<String> names) {
+        try {
+            deleteByNames.accept(names);
+            return true;
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return false;
+        }
+    }
+
+    private Map<String, Task> findTasks(List<String> names) {
+        try {
+            return taskStore.findByNames(names);
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return new HashMap<>();
+        }
+    }
+
+    private Set<String> findPersonNames(List<String> names) {
+        try {
+            return personStore.findExistingNames(names);
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return Set.of();
+        }
+    }
+
+    private void addCountDelta(Map<ObjectId, Integer> countDeltas, Task task, int delta) {
+        if (task != null && !task.getDone() && task.getPersonAssignedId() != null) {
+            countDeltas.merge(task.getPersonAssignedId(), delta, Integer::sum);
+        }
+    }
+
+    private void applyCountDeltas(Map<ObjectId, Integer> countDeltas) {
+        if (countDeltas.values().stream().anyMatch(delta -> delta != 0)) {
+            try {
+                personStore.incrementCounts(countDeltas, AssignmentLease.NO_LEASE);
+            } catch (MongoException me) {
+                handleMongoException(me);
+            }
+            personCache.invalidateAll();
+            countDeltas.forEach((personId, delta) -> {
+                if (delta != 0) {
+                    assignmentFeed.personCountChanged(personId, null, null);
+                }
+            });
+        }
+    }
+
+    private List<BatchItemResult> finishBatch(String operation, List<BatchItemResult> results) {
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Batch of %d %s", results.size(), operation));
+        }
+        assignmentScheduler.requestAssignment();
+        return results;
+    }
+
+    private void handleMongoException(MongoException me) {
+        if (getLogger().isLoggable(Level.SEVERE)) {
+            getLogger().log(Level.SEVERE, "Batch operation failed: ", me);
+        }
+    }
+}
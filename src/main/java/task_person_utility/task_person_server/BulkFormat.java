@@ -0,0 +1,37 @@
+package task_person_utility.task_person_server;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Formats of bulk import and export, one entity per line (NDJSON) or per record after a header row (CSV).
+ */
+public enum BulkFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    BulkFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    static BulkFormat of(String name) {
+        for (BulkFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv, not " + name);
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
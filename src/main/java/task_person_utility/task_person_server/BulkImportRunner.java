@@ -0,0 +1,101 @@
+package task_person_utility.task_person_server;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Command line import, run with --import.file=path [--import.type=tasks|persons] [--import.format=ndjson|csv]
+ * and usually --spring.main.web-application-type=none. The format defaults to the file extension. Counts
+ * are reconciled and tasks assigned once on this thread after the file is in, then the application exits
+ * with status 0, or 1 if the import failed or rejected any record.
+ */
+@Component
+@ConditionalOnProperty(name = "import.file")
+public class BulkImportRunner implements ApplicationRunner {
+
+    private final BulkTransferServices bulkTransferServices;
+    private final TasksCountReconciler tasksCountReconciler;
+    private final AssignTasksServices assignTasksServices;
+    private final ConfigurableApplicationContext context;
+    private final Path file;
+    private final String type;
+    private final String format;
+    private final Logger logger;
+
+    @Autowired
+    public BulkImportRunner(BulkTransferServices bulkTransferServices, TasksCountReconciler tasksCountReconciler,
+                            AssignTasksServices assignTasksServices, ConfigurableApplicationContext context,
+                            @Value("${import.file}") String file,
+                            @Value("${import.type:tasks}") String type,
+                            @Value("${import.format:}") String format) {
+        this.bulkTransferServices = bulkTransferServices;
+        this.tasksCountReconciler = tasksCountReconciler;
+        this.assignTasksServices = assignTasksServices;
+        this.context = context;
+        this.file = Path.of(file);
+        this.type = type;
+        this.format = format;
+        logger = Logger.getLogger(BulkImportRunner.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int exitCode;
+        try {
+            ImportReport report = importFile();
+            tasksCountReconciler.reconcile();
+            assignTasksServices.assignTasks();
+            if (getLogger().isLoggable(Level.INFO)) {
+                getLogger().log(Level.INFO, String.format("Import of %s finished: %s", file, report));
+            }
+            for (ImportReport.Reject reject : report.getRejects()) {
+                if (getLogger().isLoggable(Level.WARNING)) {
+                    getLogger().log(Level.WARNING, String.format("Record %d rejected: %s", reject.getRecord(),
+                            reject.getError()));
+                }
+            }
+            exitCode = report.getRejected() == 0 ? 0 : 1;
+        } catch (IOException | RuntimeException e) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to import " + file + " due to an error: ", e);
+            }
+            exitCode = 1;
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+
+    private ImportReport importFile() throws IOException {
+        BulkFormat bulkFormat = BulkFormat.of(format.isBlank() ? extension() : format);
+        try (InputStream in = Files.newInputStream(file)) {
+            return switch (type) {
+                case "tasks" -> bulkTransferServices.importTasks(in, bulkFormat);
+                case "persons" -> bulkTransferServices.importPersons(in, bulkFormat);
+                default -> throw new IllegalArgumentException("import.type must be tasks or persons, not " + type);
+            };
+        }
+    }
+
+    private String extension() {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+}
@@ -0,0 +1,122 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat record layout shared by both bulk formats: ids as hex strings, dates as ISO dates, one key or
+ * column per field. Values read from NDJSON arrive typed, values read from CSV as strings; both parse
+ * the same way, and a missing or empty value takes the default of the matching constructor.
+ */
+final class BulkRecords {
+
+    static final List<String> TASK_COLUMNS =
+            List.of("name", "description", "dateOfCreation", "done", "dateOfCompletion", "personAssignedId",
+                    "partition");
+    static final List<String> PERSON_COLUMNS = List.of("name", "availability", "tasksAssignedNumber", "partition");
+
+    private BulkRecords() {
+    }
+
+    static Map<String, Object> fromTask(Task task) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("name", task.getName());
+        record.put("description", task.getDescription());
+        record.put("dateOfCreation", task.getDateOfCreation() == null ? null : task.getDateOfCreation().toString());
+        record.put("done", task.getDone());
+        record.put("dateOfCompletion", task.getDateOfCompletion() == null ? null : task.getDateOfCompletion().toString());
+        record.put("personAssignedId", task.getPersonAssignedId() == null ? null : task.getPersonAssignedId().toHexString());
+        record.put("partition", task.getPartition());
+        return record;
+    }
+
+    static Map<String, Object> fromPerson(Person person) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("name", person.getName());
+        record.put("availability", person.getAvailability());
+        record.put("tasksAssignedNumber", person.getTasksAssignedNumber());
+        record.put("partition", person.getPartition());
+        return record;
+    }
+
+    static Task toTask(Map<String, ?> record) {
+        Task task = new Task(requireName(record));
+        String description = string(record, "description");
+        if (description != null) {
+            task.setDescription(description);
+        }
+        String dateOfCreation = string(record, "dateOfCreation");
+        if (dateOfCreation != null) {
+            task.setDateOfCreation(LocalDate.parse(dateOfCreation));
+        }
+        task.setDone(bool(record, "done", false));
+        String dateOfCompletion = string(record, "dateOfCompletion");
+        if (dateOfCompletion != null) {
+            task.setDateOfCompletion(LocalDate.parse(dateOfCompletion));
+        }
+        String personAssignedId = string(record, "personAssignedId");
+        if (personAssignedId != null) {
+            if (!ObjectId.isValid(personAssignedId)) {
+                throw new IllegalArgumentException("Invalid personAssignedId: " + personAssignedId);
+            }
+            task.setPersonAssignedId(new ObjectId(personAssignedId));
+        }
+        task.setPartition(string(record, "partition"));
+        return task;
+    }
+
+    /**
+     * The task count is not imported; it is recomputed from the tasks once the import is done.
+     */
+    static Person toPerson(Map<String, ?> record) {
+        Person person = new Person(requireName(record));
+        person.setAvailability(bool(record, "availability", true));
+        person.setPartition(string(record, "partition"));
+        return person;
+    }
+
+    static List<String> toRow(Map<String, Object> record, List<String> columns) {
+        List<String> row = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            Object value = record.get(column);
+            row.add(value == null ? null : value.toString());
+        }
+        return row;
+    }
+
+    private static String requireName(Map<String, ?> record) {
+        String name = string(record, "name");
+        if (name == null) {
+            throw new IllegalArgumentException("name is missing");
+        }
+        return name;
+    }
+
+    private static String string(Map<String, ?> record, String key) {
+        Object value = record.get(key);
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static boolean bool(Map<String, ?> record, String key, boolean defaultValue) {
+        String text = string(record, key);
+        if (text == null) {
+            return defaultValue;
+        }
+        if (text.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (text.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException(key + " must be true or false, not " + text);
+    }
+}
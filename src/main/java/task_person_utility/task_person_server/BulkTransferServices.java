@@ -0,0 +1,373 @@
+package task_person_utility.task_person_server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import and export of tasks and persons as NDJSON or CSV, for files far larger than the heap.
+ * <p>
+ * Imports parse one record at a time and insert batches of batch.chunk-size records with one batch write
+ * each. At most import.max-in-flight batches of an import are written at once; when all are busy the
+ * parser waits, so a fast upload cannot outrun the database. A bad record is rejected on its own and the
+ * import goes on, including one that cannot be parsed at all or is longer than import.max-record-length
+ * characters; only an I/O error ends an import early. Counts and assignment are left to the caller, to be
+ * done once for the whole file.
+ * <p>
+ * Exports write each entity as soon as the store cursor yields it.
+ */
+@Service
+public class BulkTransferServices {
+
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {
+    };
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    private final TaskStore taskStore;
+    private final PersonStore personStore;
+    private final EntityCache<Person> personCache;
+    private final EntityCache<Task> taskCache;
+    private final AssignmentFeed assignmentFeed;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final long progressInterval;
+    private final int maxRecordLength;
+    private final ExecutorService executor;
+    private final Logger logger;
+
+    @Autowired
+    public BulkTransferServices(TaskStore taskStore, PersonStore personStore, EntityCache<Person> personCache,
+                                EntityCache<Task> taskCache, AssignmentFeed assignmentFeed, ObjectMapper objectMapper,
+                                @Value("${batch.chunk-size:1000}") int chunkSize,
+                                @Value("${import.max-in-flight:4}") int maxInFlight,
+                                @Value("${import.progress-interval:100000}") long progressInterval,
+                                @Value("${import.max-record-length:1048576}") int maxRecordLength) {
+        this.taskStore = taskStore;
+        this.personStore = personStore;
+        this.personCache = personCache;
+        this.taskCache = taskCache;
+        this.assignmentFeed = assignmentFeed;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.progressInterval = progressInterval;
+        this.maxRecordLength = Math.max(1, maxRecordLength);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(this.maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger = Logger.getLogger(BulkTransferServices.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public ImportReport importTasks(InputStream in, BulkFormat format) throws IOException {
+        ImportReport report = importRecords(in, format, BulkRecords::toTask, taskStore::insertAll,
+                assignmentFeed::taskCreated, "tasks");
+        taskCache.invalidateAll();
+        return report;
+    }
+
+    public ImportReport importPersons(InputStream in, BulkFormat format) throws IOException {
+        ImportReport report = importRecords(in, format, BulkRecords::toPerson, personStore::insertAll,
+                person -> { }, "persons");
+        personCache.invalidateAll();
+        return report;
+    }
+
+    public void exportTasks(OutputStream out, BulkFormat format) throws IOException {
+        try (Stream<Task> tasks = taskStore.streamAll()) {
+            exportRecords(out, format, BulkRecords.TASK_COLUMNS, tasks.map(BulkRecords::fromTask));
+        }
+    }
+
+    public void exportPersons(OutputStream out, BulkFormat format) throws IOException {
+        try (Stream<Person> persons = personStore.streamAll()) {
+            exportRecords(out, format, BulkRecords.PERSON_COLUMNS, persons.map(BulkRecords::fromPerson));
+        }
+    }
+
+    private <T> ImportReport importRecords(InputStream in, BulkFormat format, Function<Map<String, ?>, T> parse,
+                                           Function<List<T>, Map<Integer, String>> insertAll, Consumer<T> onInserted,
+                                           String entities) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RecordReader records = format == BulkFormat.CSV
+                ? new CsvRecords(reader, maxRecordLength) : new NdjsonRecords(reader, objectMapper, maxRecordLength);
+        List<T> batch = new ArrayList<>(chunkSize);
+        List<Long> batchRecords = new ArrayList<>(chunkSize);
+        try {
+            while (records.hasNext()) {
+                long recordNumber = report.recordRead();
+                try {
+                    batch.add(parse.apply(records.next()));
+                    batchRecords.add(recordNumber);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    report.rejected(recordNumber, e.getMessage());
+                }
+                if (batch.size() == chunkSize) {
+                    submit(batch, batchRecords, insertAll, onInserted, report, inFlight);
+                    batch = new ArrayList<>(chunkSize);
+                    batchRecords = new ArrayList<>(chunkSize);
+                }
+                if (progressInterval > 0 && recordNumber % progressInterval == 0
+                        && getLogger().isLoggable(Level.INFO)) {
+                    getLogger().log(Level.INFO, String.format("Import of %s: %d records read, %d accepted, %d rejected",
+                            entities, recordNumber, report.getAccepted(), report.getRejected()));
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch, batchRecords, insertAll, onInserted, report, inFlight);
+            }
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+        report.finished(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Imported %d of %d %s in %d ms, %d rejected",
+                    report.getAccepted(), report.getRecords(), entities, report.getElapsedMillis(),
+                    report.getRejected()));
+        }
+        return report;
+    }
+
+    /**
+     * Blocks while the import already has max-in-flight batches being written.
+     */
+    private <T> void submit(List<T> batch, List<Long> batchRecords, Function<List<T>, Map<Integer, String>> insertAll,
+                            Consumer<T> onInserted, ImportReport report, Semaphore inFlight) {
+        inFlight.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    insertBatch(batch, batchRecords, insertAll, onInserted, report);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private <T> void insertBatch(List<T> batch, List<Long> batchRecords,
+                                 Function<List<T>, Map<Integer, String>> insertAll, Consumer<T> onInserted,
+                                 ImportReport report) {
+        Map<Integer, String> errors;
+        try {
+            errors = insertAll.apply(batch);
+        } catch (MongoException me) {
+            handleMongoException(me);
+            errors = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                errors.put(i, me.getMessage());
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors.containsKey(i)) {
+                report.rejected(batchRecords.get(i), errors.get(i));
+            } else {
+                onInserted.accept(batch.get(i));
+            }
+        }
+        report.accepted(batch.size() - errors.size());
+    }
+
+    private void exportRecords(OutputStream out, BulkFormat format, List<String> columns,
+                               Stream<Map<String, Object>> records) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == BulkFormat.CSV) {
+            Csv.writeRecord(writer, columns);
+        }
+        int written = 0;
+        for (Map<String, Object> record : (Iterable<Map<String, Object>>) records::iterator) {
+            if (format == BulkFormat.CSV) {
+                Csv.writeRecord(writer, BulkRecords.toRow(record, columns));
+            } else {
+                writer.write(objectMapper.writeValueAsString(record));
+                writer.write('\n');
+            }
+            if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private interface RecordReader {
+        /**
+         * Moves to the next record, skipping blank lines; returns false at the end of the input.
+         */
+        boolean hasNext() throws IOException;
+
+        /**
+         * Parses the record found by hasNext; a malformed one throws IllegalArgumentException.
+         */
+        Map<String, Object> next();
+    }
+
+    private static final class NdjsonRecords implements RecordReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+        private final int maxLength;
+        private String line;
+
+        NdjsonRecords(BufferedReader reader, ObjectMapper objectMapper, int maxLength) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            do {
+                line = readLine();
+            } while (line != null && line.isBlank());
+            return line != null;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (line.length() > maxLength) {
+                throw new Csv.MalformedRecordException(String.format("Record longer than %d characters", maxLength));
+            }
+            try {
+                return objectMapper.readValue(line, RECORD_TYPE);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage(), e);
+            }
+        }
+
+        /**
+         * Like readLine, but keeps only the first maxLength + 1 characters of a longer line, enough for
+         * next to reject it.
+         */
+        private String readLine() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            StringBuilder text = new StringBuilder();
+            while (c >= 0 && c != '\n') {
+                if (text.length() > maxLength) {
+                    Csv.skipLine(reader);
+                    break;
+                }
+                text.append((char) c);
+                c = reader.read();
+            }
+            int end = text.length();
+            if (end > 0 && text.charAt(end - 1) == '\r') {
+                text.setLength(end - 1);
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * The first record is the header; columns it does not name are ignored. A record that cannot be read is
+     * handed on as its error, to be rejected by next; an unreadable header is the only record.
+     */
+    private static final class CsvRecords implements RecordReader {
+        private final BufferedReader reader;
+        private final int maxLength;
+        private List<String> header;
+        private List<String> fields;
+        private IllegalArgumentException malformed;
+        private boolean exhausted;
+
+        CsvRecords(BufferedReader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            malformed = null;
+            if (exhausted) {
+                return false;
+            }
+            try {
+                if (header == null) {
+                    header = Csv.readRecord(reader, maxLength);
+                    if (header == null) {
+                        return false;
+                    }
+                }
+                do {
+                    fields = Csv.readRecord(reader, maxLength);
+                } while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+                return fields != null;
+            } catch (Csv.MalformedRecordException e) {
+                if (header == null) {
+                    exhausted = true;
+                    malformed = new IllegalArgumentException("Unreadable header: " + e.getMessage(), e);
+                } else {
+                    malformed = e;
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (malformed != null) {
+                throw malformed;
+            }
+            Map<String, Object> record = new HashMap<>();
+            for (int i = 0; i < Math.min(header.size(), fields.size()); i++) {
+                record.put(header.get(i).trim(), fields.get(i));
+            }
+            return record;
+        }
+    }
+
+    private void handleMongoException(MongoException me) {
+        if (getLogger().isLoggable(Level.SEVERE)) {
+            getLogger().log(Level.SEVERE, "Import batch failed: ", me);
+        }
+    }
+}
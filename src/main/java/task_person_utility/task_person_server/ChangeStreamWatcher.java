@@ -0,0 +1,205 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches the tasks and persons collections through a change stream so writes made directly to the
+ * database, bypassing the services, are balanced as well. Every relevant change requests a coalesced
+ * assignment pass that first reconciles the counts, since the count delta of a foreign write is unknown.
+ * Updates touching only the fields the server maintains itself are filtered out on the server, so
+ * assignment passes do not retrigger themselves. Writes of the server's own services, which already
+ * settle assignment themselves, are stamped with a fresh {@value #SERVER_WRITE_FIELD} and filtered out
+ * as well; deletes carry no document to stamp and always pass.
+ * <p>
+ * The resume token is stored in the changeStreamTokens collection after every batch, so a restart
+ * continues where the previous process stopped. Change streams need a replica set; a local single-node
+ * one is enough ({@code mongod --replSet rs0} followed by {@code rs.initiate()}).
+ */
+@Component
+@ConditionalOnProperty(name = "assignment.change-stream.enabled", havingValue = "true")
+public class ChangeStreamWatcher {
+
+    static final String SERVER_WRITE_FIELD = "serverWrite";
+
+    private static final String TOKEN_ID = "assignment-watcher";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final List<String> BOOKKEEPING_FIELDS =
+            List.of("personAssignedId", "tasksAssignedNumber", "version", MongoAssignmentLease.FENCE_FIELD);
+
+    private final MongoDatabase mongoDatabase;
+    private final MongoCollection<BsonDocument> tokensDB;
+    private final AssignmentScheduler assignmentScheduler;
+    private final long retryDelayMillis;
+    private final Thread watcherThread;
+    private final Logger logger;
+
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    @Autowired
+    public ChangeStreamWatcher(MongoDatabase mongoDatabase, AssignmentScheduler assignmentScheduler,
+                               @Value("${assignment.change-stream.retry-delay-ms:5000}") long retryDelayMillis) {
+        this.mongoDatabase = mongoDatabase;
+        tokensDB = mongoDatabase.getCollection("changeStreamTokens", BsonDocument.class);
+        this.assignmentScheduler = assignmentScheduler;
+        this.retryDelayMillis = retryDelayMillis;
+        watcherThread = new Thread(this::watch, "change-stream-watcher");
+        watcherThread.setDaemon(true);
+        logger = Logger.getLogger(ChangeStreamWatcher.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        watcherThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+        watcherThread.interrupt();
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                consume(openStream(loadResumeToken()));
+            } catch (MongoException me) {
+                if (!running) {
+                    return;
+                }
+                if (me.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // The stored position fell off the oplog, so changes were missed: start over from now
+                    // and rebalance everything once
+                    deleteResumeToken();
+                    assignmentScheduler.requestReconciledAssignment();
+                }
+                if (getLogger().isLoggable(Level.WARNING)) {
+                    getLogger().log(Level.WARNING, "Change stream interrupted, reopening: ", me);
+                }
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private ChangeStreamIterable<Document> openStream(BsonDocument resumeToken) {
+        ChangeStreamIterable<Document> stream = mongoDatabase.watch(List.of(Aggregates.match(relevantChanges())))
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        return resumeToken == null ? stream : stream.resumeAfter(resumeToken);
+    }
+
+    private void consume(ChangeStreamIterable<Document> stream) {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = stream.cursor()) {
+            cursor = current;
+            BsonDocument persistedToken = null;
+            while (running) {
+                ChangeStreamDocument<Document> change = current.tryNext();
+                if (change != null) {
+                    assignmentScheduler.requestReconciledAssignment();
+                }
+                // tryNext returns null once the current batch is drained; the post-batch token then covers it
+                BsonDocument token = current.getResumeToken();
+                if (change == null && token != null && !token.equals(persistedToken)) {
+                    saveResumeToken(token);
+                    persistedToken = token;
+                }
+            }
+        } finally {
+            cursor = null;
+        }
+    }
+
+    /**
+     * Marks an update as written by the server. The value is new on every write, since a field set to the
+     * value it already holds does not show up in the change event.
+     */
+    static Bson serverWrite(Bson update) {
+        return Updates.combine(update, Updates.set(SERVER_WRITE_FIELD, new ObjectId()));
+    }
+
+    /**
+     * Inserts and replacements of tasks and persons not stamped by the server, all deletes, plus updates
+     * not stamped by the server that change at least one field outside the bookkeeping fields.
+     */
+    private static Bson relevantChanges() {
+        Document changedFields = new Document("$concatArrays", List.of(
+                new Document("$map", new Document("input", new Document("$objectToArray",
+                        new Document("$ifNull", List.of("$updateDescription.updatedFields", new Document()))))
+                        .append("in", "$$this.k")),
+                new Document("$ifNull", List.of("$updateDescription.removedFields", List.of()))
+        ));
+        Document foreignFields = new Document("$filter", new Document("input", changedFields)
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", BOOKKEEPING_FIELDS))))));
+        return Filters.and(
+                Filters.in("ns.coll", "tasks", "persons"),
+                Filters.or(
+                        Filters.eq("operationType", "delete"),
+                        Filters.and(Filters.in("operationType", "insert", "replace"),
+                                Filters.exists("fullDocument." + SERVER_WRITE_FIELD, false)),
+                        Filters.and(Filters.eq("operationType", "update"),
+                                Filters.exists("updateDescription.updatedFields." + SERVER_WRITE_FIELD, false),
+                                Filters.expr(new Document("$gt", List.of(new Document("$size", foreignFields), 0))))
+                )
+        );
+    }
+
+    private BsonDocument loadResumeToken() {
+        BsonDocument stored = tokensDB.find(Filters.eq("_id", TOKEN_ID)).first();
+        return stored == null ? null : stored.getDocument("token");
+    }
+
+    private void deleteResumeToken() {
+        try {
+            tokensDB.deleteOne(Filters.eq("_id", TOKEN_ID));
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to delete the stale resume token due to an error: ", me);
+            }
+        }
+    }
+
+    private void saveResumeToken(BsonDocument token) {
+        tokensDB.replaceOne(Filters.eq("_id", TOKEN_ID),
+                new BsonDocument("_id", new BsonString(TOKEN_ID)).append("token", token),
+                new ReplaceOptions().upsert(true));
+    }
+}
@@ -0,0 +1,104 @@
+package task_person_utility.task_person_server;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 records read and written one at a time, so files of any size pass through in constant memory.
+ * Quoted fields may hold commas, doubled quotes and line breaks.
+ */
+final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the input. The reader should be buffered.
+     * A record longer than maxLength characters, or one whose quoted field runs to the end of the input,
+     * throws {@link MalformedRecordException} once the input is skipped to the end of the current line, so
+     * reading can go on with the next record; a stray quote costs at most maxLength characters.
+     */
+    static List<String> readRecord(Reader in, int maxLength) throws IOException {
+        int c = in.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new MalformedRecordException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c < 0 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            if (++length > maxLength) {
+                skipLine(in);
+                throw new MalformedRecordException(String.format("Record longer than %d characters", maxLength));
+            }
+            c = in.read();
+        }
+    }
+
+    static void skipLine(Reader in) throws IOException {
+        int c;
+        do {
+            c = in.read();
+        } while (c >= 0 && c != '\n');
+    }
+
+    static void writeRecord(Writer out, List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String field = fields.get(i);
+            if (field == null) {
+                continue;
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0
+                    || field.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(field.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(field);
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * A record that could not be read; the input is left at the start of the next line.
+     */
+    static final class MalformedRecordException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package task_person_utility.task_person_server;
 
-import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoException;
 import com.mongodb.client.MongoClient;
@@ -8,26 +7,29 @@ import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
 import jakarta.annotation.PreDestroy;
 import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.codecs.pojo.PojoCodecProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
+import static org.bson.codecs.configuration.CodecRegistries.fromCodecs;
 import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
 
 @Component
 public class DBUtil {
 
+    static final String DATABASE_NAME = "PersonTask";
+
     private MongoDatabase personTaskDataBase;
     private MongoClient mongoClient;
+    private final MongoClientFactory mongoClientFactory;
     private final Logger logger;
 
-    public DBUtil(){
-        initializeDB("PersonTask");
+    public DBUtil(MongoClientFactory mongoClientFactory){
+        this.mongoClientFactory = mongoClientFactory;
         logger = Logger.getLogger(DBUtil.class.getName());
+        initializeDB(mongoClientFactory.getDatabaseName());
     }
 
     @PreDestroy
@@ -51,19 +53,17 @@ public class DBUtil {
 
     public void renewDB(String dbName) {
         closeDBClient();
-        initializeDB("PersonTask");
+        initializeDB(dbName);
+    }
+
+    static CodecRegistry createCodecRegistry() {
+        return fromRegistries(fromCodecs(new PersonCodec(), new TaskCodec()),
+                MongoClientSettings.getDefaultCodecRegistry());
     }
 
     private void initializeDB(String dbName) {
         Logger.getLogger( "org.mongodb.driver" ).setLevel(Level.WARNING);
-        ConnectionString mongoUri = new ConnectionString("mongodb://localhost:27017/");
-
-        CodecRegistry pojoCodecRegistry = fromRegistries(MongoClientSettings.getDefaultCodecRegistry(),
-                fromProviders(PojoCodecProvider.builder().automatic(true).build()));
-
-        MongoClientSettings settings = MongoClientSettings.builder()
-                .codecRegistry(pojoCodecRegistry)
-                .applyConnectionString(mongoUri).build();
+        MongoClientSettings settings = mongoClientFactory.createClientSettings();
 
         try {
             mongoClient = MongoClients.create(settings);
@@ -0,0 +1,58 @@
+package task_person_utility.task_person_server;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded name-keyed cache in front of Mongo lookups.
+ * Writers invalidate the key after their database write rather than putting the value they wrote: with two
+ * concurrent writers the one finishing last could otherwise cache the older value until it expires. Loads
+ * are atomic per key, so an invalidate always wins over a concurrent load of the previous value. When disabled every call goes to the loader.
+ */
+public class EntityCache<T> {
+
+    private final Cache<String, T> cache;
+
+    public EntityCache(boolean enabled, long maximumSize, Duration expireAfterWrite) {
+        cache = enabled
+                ? Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats().build()
+                : null;
+    }
+
+    public T get(String name, Function<String, T> loader) {
+        if (cache == null || name == null) {
+            return loader.apply(name);
+        }
+        return cache.get(name, loader);
+    }
+
+    public void invalidate(String name) {
+        if (cache != null && name != null) {
+            cache.invalidate(name);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        if (cache != null) {
+            CacheStats cacheStats = cache.stats();
+            stats.put("size", cache.estimatedSize());
+            stats.put("hits", cacheStats.hitCount());
+            stats.put("misses", cacheStats.missCount());
+            stats.put("evictions", cacheStats.evictionCount());
+        }
+        return stats;
+    }
+}
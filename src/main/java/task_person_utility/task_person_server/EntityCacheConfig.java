@@ -0,0 +1,28 @@
+package task_person_utility.task_person_server;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class EntityCacheConfig {
+
+    @Value("${cache.entities.enabled:true}")
+    private boolean enabled;
+    @Value("${cache.entities.maximum-size:10000}")
+    private long maximumSize;
+    @Value("${cache.entities.expire-after-write-ms:30000}")
+    private long expireAfterWriteMillis;
+
+    @Bean
+    public EntityCache<Person> personCache() {
+        return new EntityCache<>(enabled, maximumSize, Duration.ofMillis(expireAfterWriteMillis));
+    }
+
+    @Bean
+    public EntityCache<Task> taskCache() {
+        return new EntityCache<>(enabled, maximumSize, Duration.ofMillis(expireAfterWriteMillis));
+    }
+}
@@ -0,0 +1,137 @@
+package task_person_utility.task_person_server;
+
+import graphql.GraphQLError;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import org.bson.types.ObjectId;
+import org.dataloader.BatchLoaderEnvironment;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * GraphQL queries over persons and tasks. Only the stored fields behind the selected GraphQL fields are
+ * read, and Task.personAssigned goes through a per-request DataLoader, so all assignees of a page are
+ * fetched with one de-duplicated query instead of one query per task.
+ */
+@Controller
+public class GraphQLController {
+
+    private static final Map<String, String> PERSON_FIELDS = Map.of(
+            "name", "name",
+            "availability", "availability",
+            "tasksAssignedNumber", "tasksAssignedNumber",
+            "partition", "partition");
+    private static final Map<String, String> TASK_FIELDS = Map.of(
+            "name", "name",
+            "description", "description",
+            "dateOfCreation", "dateOfCreation",
+            "done", "done",
+            "dateOfCompletion", "dateOfCompletion",
+            "personAssignedId", "personAssignedId",
+            "personAssigned", "personAssignedId",
+            "partition", "partition");
+
+    private final PersonServices personServices;
+    private final TaskServices taskServices;
+
+    @Autowired
+    public GraphQLController(PersonServices personServices, TaskServices taskServices,
+                             BatchLoaderRegistry batchLoaderRegistry) {
+        this.personServices = personServices;
+        this.taskServices = taskServices;
+        batchLoaderRegistry.forTypePair(ObjectId.class, Person.class).registerMappedBatchLoader(this::loadPersons);
+    }
+
+    @QueryMapping
+    public Page<Person> persons(@Argument int first, @Argument String after, DataFetchingFieldSelectionSet selection) {
+        return personServices.getPersonsPage(Page.checkCursor(after), Page.checkLimit(first),
+                selectedFields(selection, "items/*", PERSON_FIELDS));
+    }
+
+    @QueryMapping
+    public Person person(@Argument String name, DataFetchingFieldSelectionSet selection) {
+        return personServices.findPerson(name, selectedFields(selection, "*", PERSON_FIELDS));
+    }
+
+    @QueryMapping
+    public Page<Task> tasks(@Argument int first, @Argument String after, DataFetchingFieldSelectionSet selection) {
+        return taskServices.getTasksPage(Page.checkCursor(after), Page.checkLimit(first),
+                selectedFields(selection, "items/*", TASK_FIELDS));
+    }
+
+    @QueryMapping
+    public Task task(@Argument String name, DataFetchingFieldSelectionSet selection) {
+        return taskServices.findTask(name, selectedFields(selection, "*", TASK_FIELDS));
+    }
+
+    @SchemaMapping(typeName = "Task", field = "personAssigned")
+    public CompletableFuture<Person> personAssigned(Task task, DataLoader<ObjectId, Person> personLoader,
+                                                    DataFetchingFieldSelectionSet selection) {
+        if (task.getPersonAssignedId() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // The selected fields travel as key context, so the batch reads the union of all selections
+        return personLoader.load(task.getPersonAssignedId(), selectedFields(selection, "*", PERSON_FIELDS));
+    }
+
+    @SchemaMapping(typeName = "Person", field = "id")
+    public String personId(Person person) {
+        return toHex(person.getId());
+    }
+
+    @SchemaMapping(typeName = "Task", field = "id")
+    public String taskId(Task task) {
+        return toHex(task.getId());
+    }
+
+    @SchemaMapping(typeName = "Task", field = "personAssignedId")
+    public String personAssignedId(Task task) {
+        return toHex(task.getPersonAssignedId());
+    }
+
+    @GraphQlExceptionHandler
+    public GraphQLError handleBadRequest(ResponseStatusException e) {
+        return GraphQLError.newError().errorType(ErrorType.BAD_REQUEST).message(e.getReason()).build();
+    }
+
+    private Mono<Map<ObjectId, Person>> loadPersons(Set<ObjectId> ids, BatchLoaderEnvironment environment) {
+        Set<String> fields = new HashSet<>();
+        for (Object keyContext : environment.getKeyContextsList()) {
+            if (keyContext instanceof Collection<?> selected) {
+                selected.forEach(field -> fields.add((String) field));
+            }
+        }
+        return Mono.fromCallable(() -> personServices.findPersonsById(ids, fields));
+    }
+
+    private static Set<String> selectedFields(DataFetchingFieldSelectionSet selection, String glob,
+                                              Map<String, String> storedFields) {
+        Set<String> fields = new HashSet<>();
+        for (SelectedField field : selection.getFields(glob)) {
+            String storedField = storedFields.get(field.getName());
+            if (storedField != null) {
+                fields.add(storedField);
+            }
+        }
+        return fields;
+    }
+
+    private static String toHex(ObjectId id) {
+        return id == null ? null : id.toHexString();
+    }
+}
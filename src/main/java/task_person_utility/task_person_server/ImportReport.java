@@ -0,0 +1,95 @@
+package task_person_utility.task_person_server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outcome of a bulk import. Batches finish on several threads, so the counters are atomic; only the
+ * first rejects are kept so a file full of bad records cannot fill the heap with them.
+ */
+public class ImportReport {
+
+    static final int MAX_REJECT_SAMPLES = 100;
+
+    public static class Reject {
+        private final long record;
+        private final String error;
+
+        public Reject(long record, String error) {
+            this.record = record;
+            this.error = error;
+        }
+
+        // Getters
+
+        public long getRecord() {
+            return record;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<Reject> rejects = new ArrayList<>();
+    private long elapsedMillis;
+
+    long recordRead() {
+        return records.incrementAndGet();
+    }
+
+    void accepted(int count) {
+        accepted.addAndGet(count);
+    }
+
+    void rejected(long record, String error) {
+        rejected.incrementAndGet();
+        synchronized (rejects) {
+            if (rejects.size() < MAX_REJECT_SAMPLES) {
+                rejects.add(new Reject(record, error));
+            }
+        }
+    }
+
+    void finished(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Getters
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public List<Reject> getRejects() {
+        synchronized (rejects) {
+            return List.copyOf(rejects);
+        }
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "records=" + records +
+                ", accepted=" + accepted +
+                ", rejected=" + rejected +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -0,0 +1,372 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Persons held in this process, ordered by id, with the available ones indexed by task count, once overall
+ * and once per partition, so the least loaded person is the first entry of a sorted set instead of a scan.
+ * Locking, copying and fencing work as in {@link InMemoryTaskStore}.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "memory")
+public class InMemoryPersonStore implements PersonStore {
+
+    static final int MAX_CLAIM_ATTEMPTS = 16;
+
+    private static final Comparator<LoadEntry> BY_LOAD =
+            Comparator.comparingInt(LoadEntry::count).thenComparing(LoadEntry::id);
+
+    private final ConcurrentSkipListMap<ObjectId, Person> persons = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, ObjectId> idsByName = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<LoadEntry> available = new ConcurrentSkipListSet<>(BY_LOAD);
+    private final ConcurrentHashMap<PartitionKey, ConcurrentSkipListSet<LoadEntry>> availableByPartition =
+            new ConcurrentHashMap<>();
+    private final StripedLocks locks;
+
+    @Autowired
+    public InMemoryPersonStore(@Value("${storage.memory.lock-stripes:64}") int lockStripes) {
+        locks = new StripedLocks(lockStripes);
+    }
+
+    @Override
+    public void insert(Person person) {
+        if (person.getId() == null) {
+            person.setId(new ObjectId());
+        }
+        ReentrantLock lock = locks.lockFor(person.getId());
+        lock.lock();
+        try {
+            if (persons.containsKey(person.getId())) {
+                throw InMemoryTaskStore.duplicateKey("_id", person.getId());
+            }
+            if (idsByName.putIfAbsent(person.getName(), person.getId()) != null) {
+                throw InMemoryTaskStore.duplicateKey("name", person.getName());
+            }
+            Person stored = copy(person);
+            persons.put(stored.getId(), stored);
+            index(stored);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Person> persons) {
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < persons.size(); i++) {
+            try {
+                insert(persons.get(i));
+            } catch (MongoException me) {
+                errors.put(i, me.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public List<Person> findAll() {
+        List<Person> all = new ArrayList<>(persons.size());
+        for (Person person : persons.values()) {
+            all.add(copy(person));
+        }
+        return all;
+    }
+
+    @Override
+    public Stream<Person> streamAll() {
+        return persons.values().stream().map(InMemoryPersonStore::copy);
+    }
+
+    @Override
+    public List<Person> findPage(ObjectId after, int limit, Collection<String> fields) {
+        Collection<Person> from = after == null ? persons.values() : persons.tailMap(after, false).values();
+        List<Person> page = new ArrayList<>(Math.min(limit, persons.size()));
+        for (Person person : from) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(copy(person));
+        }
+        return page;
+    }
+
+    @Override
+    public Person findByName(String name, Collection<String> fields) {
+        ObjectId id = idsByName.get(name);
+        Person person = id == null ? null : persons.get(id);
+        return person == null ? null : copy(person);
+    }
+
+    @Override
+    public Map<ObjectId, Person> findByIds(Collection<ObjectId> ids, Collection<String> fields) {
+        Map<ObjectId, Person> found = new HashMap<>(ids.size() * 2);
+        for (ObjectId id : ids) {
+            Person person = persons.get(id);
+            if (person != null) {
+                found.put(id, copy(person));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Set<String> findExistingNames(Collection<String> names) {
+        Set<String> existingNames = new HashSet<>();
+        for (String name : names) {
+            if (idsByName.containsKey(name)) {
+                existingNames.add(name);
+            }
+        }
+        return existingNames;
+    }
+
+    @Override
+    public List<Person> findAllForAssignment() {
+        return findAll();
+    }
+
+    @Override
+    public Person deleteByName(String name) {
+        ObjectId id = idsByName.get(name);
+        if (id == null) {
+            return null;
+        }
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            Person removed = persons.remove(id);
+            if (removed == null) {
+                return null;
+            }
+            idsByName.remove(name, id);
+            unindex(removed);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteByNames(Collection<String> names) {
+        for (String name : names) {
+            deleteByName(name);
+        }
+    }
+
+    @Override
+    public Person updateChangedFields(Person current, Person requested) {
+        ReentrantLock lock = locks.lockFor(current.getId());
+        lock.lock();
+        try {
+            Person stored = persons.get(current.getId());
+            if (stored == null || !InMemoryTaskStore.FieldChanges.versionMatches(stored.getVersion(),
+                    current.getVersion(), requested.getVersion())) {
+                return null;
+            }
+            Person updated = copy(stored);
+            InMemoryTaskStore.FieldChanges<Person> changes =
+                    new InMemoryTaskStore.FieldChanges<>(current, requested, stored, updated)
+                            .field(Person::getName, Person::setName)
+                            .field(Person::getAvailability, Person::setAvailability)
+                            .field(Person::getPartition, Person::setPartition);
+            if (changes.hasConflict()) {
+                return null;
+            }
+            if (!changes.hasChanges()) {
+                return current;
+            }
+            if (!stored.getName().equals(updated.getName())) {
+                if (idsByName.putIfAbsent(updated.getName(), stored.getId()) != null) {
+                    throw InMemoryTaskStore.duplicateKey("name", updated.getName());
+                }
+                idsByName.remove(stored.getName(), stored.getId());
+            }
+            updated.setVersion(InMemoryTaskStore.nextVersion(stored.getVersion()));
+            replace(stored, updated);
+            return copy(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<Integer, String> updateAvailabilityByName(List<Person> persons) {
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            ObjectId id = idsByName.get(person.getName());
+            if (id == null || !update(id, stored -> stored.setAvailability(person.getAvailability()))) {
+                errors.put(i, InMemoryTaskStore.notFound("person", person.getName()));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public Person incrementCount(ObjectId id, int delta, boolean availableOnly) {
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            Person stored = persons.get(id);
+            if (stored == null || (availableOnly && !stored.getAvailability())) {
+                return null;
+            }
+            return copy(replaceCount(stored, stored.getTasksAssignedNumber() + delta));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the first entry of the load index and claims it under the person's lock. An entry that a
+     * concurrent write replaced in the meantime is stale; the loop then retries with the new first entry,
+     * up to {@link #MAX_CLAIM_ATTEMPTS} times before leaving the task to the next full pass.
+     */
+    @Override
+    public Person incrementLeastLoaded(boolean partitioned, String partition) {
+        Set<LoadEntry> candidates = partitioned ? availableByPartition.get(new PartitionKey(partition)) : available;
+        if (candidates == null) {
+            return null;
+        }
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            Iterator<LoadEntry> first = candidates.iterator();
+            if (!first.hasNext()) {
+                return null;
+            }
+            LoadEntry entry = first.next();
+            ReentrantLock lock = locks.lockFor(entry.id());
+            lock.lock();
+            try {
+                Person stored = persons.get(entry.id());
+                if (stored != null && stored.getAvailability()
+                        && stored.getTasksAssignedNumber() == entry.count()) {
+                    return copy(replaceCount(stored, entry.count() + 1));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void incrementCounts(Map<ObjectId, Integer> deltas, long fence) {
+        deltas.forEach((personId, delta) -> {
+            if (delta != 0) {
+                update(personId, stored -> stored.setTasksAssignedNumber(stored.getTasksAssignedNumber() + delta));
+            }
+        });
+    }
+
+    @Override
+    public long setCountsIfUnchanged(Map<ObjectId, Integer> observed, Map<ObjectId, Integer> counts, long fence) {
+        long set = 0;
+        for (Map.Entry<ObjectId, Integer> count : counts.entrySet()) {
+            ReentrantLock lock = locks.lockFor(count.getKey());
+            lock.lock();
+            try {
+                Person stored = persons.get(count.getKey());
+                if (stored != null && observed.get(count.getKey()) == stored.getTasksAssignedNumber()) {
+                    replaceCount(stored, count.getValue());
+                    set++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Returns false when the person is gone.
+     */
+    private boolean update(ObjectId id, Consumer<Person> change) {
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            Person stored = persons.get(id);
+            if (stored == null) {
+                return false;
+            }
+            Person updated = copy(stored);
+            change.accept(updated);
+            updated.setVersion(InMemoryTaskStore.nextVersion(stored.getVersion()));
+            replace(stored, updated);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Person replaceCount(Person stored, int count) {
+        Person updated = copy(stored);
+        updated.setTasksAssignedNumber(count);
+        updated.setVersion(InMemoryTaskStore.nextVersion(stored.getVersion()));
+        replace(stored, updated);
+        return updated;
+    }
+
+    private void replace(Person stored, Person updated) {
+        unindex(stored);
+        persons.put(updated.getId(), updated);
+        index(updated);
+    }
+
+    private void index(Person person) {
+        if (person.getAvailability()) {
+            LoadEntry entry = new LoadEntry(person.getTasksAssignedNumber(), person.getId());
+            available.add(entry);
+            availableByPartition.computeIfAbsent(new PartitionKey(person.getPartition()),
+                    key -> new ConcurrentSkipListSet<>(BY_LOAD)).add(entry);
+        }
+    }
+
+    private void unindex(Person person) {
+        if (person.getAvailability()) {
+            LoadEntry entry = new LoadEntry(person.getTasksAssignedNumber(), person.getId());
+            available.remove(entry);
+            Set<LoadEntry> partition = availableByPartition.get(new PartitionKey(person.getPartition()));
+            if (partition != null) {
+                partition.remove(entry);
+            }
+        }
+    }
+
+    static Person copy(Person person) {
+        Person copy = new Person(person.getId(), person.getName(), person.getAvailability(),
+                person.getTasksAssignedNumber());
+        copy.setVersion(person.getVersion());
+        copy.setPartition(person.getPartition());
+        return copy;
+    }
+
+    private record LoadEntry(int count, ObjectId id) {
+    }
+
+    /**
+     * Map key for a partition name, which is null for persons outside any partition.
+     */
+    private record PartitionKey(String partition) {
+    }
+}
@@ -0,0 +1,55 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Archived tasks held in this process, ordered by id. Archived tasks are never modified, so a plain
+ * concurrent map with copies going in and out is enough.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "memory")
+public class InMemoryTaskArchive implements TaskArchive {
+
+    private final ConcurrentSkipListMap<ObjectId, Task> tasks = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void archiveAll(List<Task> tasks) {
+        for (Task task : tasks) {
+            this.tasks.put(task.getId(), InMemoryTaskStore.copy(task));
+        }
+    }
+
+    @Override
+    public void deleteByIds(Collection<ObjectId> ids) {
+        ids.forEach(tasks::remove);
+    }
+
+    @Override
+    public List<Task> findPage(ObjectId after, int limit, ObjectId personId) {
+        Collection<Task> from = after == null ? tasks.values() : tasks.tailMap(after, false).values();
+        List<Task> page = new ArrayList<>(Math.min(limit, tasks.size()));
+        for (Task task : from) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (personId == null || Objects.equals(task.getPersonAssignedId(), personId)) {
+                page.add(InMemoryTaskStore.copy(task));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Stream<Task> streamAll() {
+        return tasks.values().stream().map(InMemoryTaskStore::copy);
+    }
+}
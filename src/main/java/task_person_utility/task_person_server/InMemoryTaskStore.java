@@ -0,0 +1,522 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Tasks held in this process, ordered by id, with the open tasks indexed by assignee and done tasks
+ * left out of every index, so assignment reads never touch the finished ones. Writes lock the
+ * task's stripe and swap in a fresh copy, so readers never see a half-written task and get copies they
+ * may modify. Indexes are updated under the same lock and every read through them re-checks the task,
+ * so a reader racing a write misses or keeps that one task but never returns one that does not match.
+ * Field lists are ignored; whole tasks are cheaper to copy here than to project. Fencing tokens are
+ * ignored as well: this engine runs with {@link LocalAssignmentLease}, so no other lease holder exists
+ * whose writes a stale pass could overwrite.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "memory")
+public class InMemoryTaskStore implements TaskStore {
+
+    private static final Comparator<Task> BY_COMPLETION =
+            Comparator.comparing(Task::getDateOfCompletion).thenComparing(Task::getId);
+
+    private final ConcurrentSkipListMap<ObjectId, Task> tasks = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, ObjectId> idsByName = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ObjectId, Set<ObjectId>> openByAssignee = new ConcurrentHashMap<>();
+    private final Set<ObjectId> openUnassigned = ConcurrentHashMap.newKeySet();
+    private final StripedLocks locks;
+
+    @Autowired
+    public InMemoryTaskStore(@Value("${storage.memory.lock-stripes:64}") int lockStripes) {
+        locks = new StripedLocks(lockStripes);
+    }
+
+    @Override
+    public void insert(Task task) {
+        if (task.getId() == null) {
+            task.setId(new ObjectId());
+        }
+        ReentrantLock lock = locks.lockFor(task.getId());
+        lock.lock();
+        try {
+            if (tasks.containsKey(task.getId())) {
+                throw duplicateKey("_id", task.getId());
+            }
+            if (idsByName.putIfAbsent(task.getName(), task.getId()) != null) {
+                throw duplicateKey("name", task.getName());
+            }
+            TaskArchiver.dateCompletion(task);
+            Task stored = copy(task);
+            tasks.put(stored.getId(), stored);
+            index(stored);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Task> tasks) {
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                insert(tasks.get(i));
+            } catch (MongoException me) {
+                errors.put(i, me.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public List<Task> findAll() {
+        List<Task> all = new ArrayList<>(tasks.size());
+        for (Task task : tasks.values()) {
+            all.add(copy(task));
+        }
+        return all;
+    }
+
+    @Override
+    public Stream<Task> streamAll() {
+        return tasks.values().stream().map(InMemoryTaskStore::copy);
+    }
+
+    @Override
+    public List<Task> findPage(ObjectId after, int limit, Collection<String> fields) {
+        Collection<Task> from = after == null ? tasks.values() : tasks.tailMap(after, false).values();
+        List<Task> page = new ArrayList<>(Math.min(limit, tasks.size()));
+        for (Task task : from) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(copy(task));
+        }
+        return page;
+    }
+
+    @Override
+    public Task findByName(String name, Collection<String> fields) {
+        Task task = storedByName(name);
+        return task == null ? null : copy(task);
+    }
+
+    @Override
+    public Map<String, Task> findByNames(Collection<String> names) {
+        Map<String, Task> found = new HashMap<>();
+        for (String name : names) {
+            Task task = storedByName(name);
+            if (task != null) {
+                found.put(name, copy(task));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Set<ObjectId> findExistingIds(Collection<ObjectId> ids) {
+        Set<ObjectId> existing = new HashSet<>();
+        for (ObjectId id : ids) {
+            if (tasks.containsKey(id)) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * A task reassigned between the reads of two assignees is seen under both; the later copy is kept.
+     */
+    @Override
+    public List<Task> findOpenForAssignment() {
+        Map<ObjectId, Task> open = new LinkedHashMap<>();
+        for (Task task : findOpenByAssignee(null)) {
+            open.put(task.getId(), task);
+        }
+        for (ObjectId personId : openByAssignee.keySet()) {
+            for (Task task : findOpenByAssignee(personId)) {
+                open.put(task.getId(), task);
+            }
+        }
+        return new ArrayList<>(open.values());
+    }
+
+    @Override
+    public List<Task> findOpenByAssignee(ObjectId personId) {
+        Set<ObjectId> ids = personId == null ? openUnassigned : openByAssignee.getOrDefault(personId, Set.of());
+        List<Task> open = new ArrayList<>(ids.size());
+        for (ObjectId id : ids) {
+            Task task = tasks.get(id);
+            if (task != null && !task.getDone() && Objects.equals(task.getPersonAssignedId(), personId)) {
+                open.add(copy(task));
+            }
+        }
+        return open;
+    }
+
+    @Override
+    public Map<ObjectId, Integer> countOpenByAssignee() {
+        Map<ObjectId, Integer> counts = new HashMap<>();
+        openByAssignee.forEach((personId, ids) -> {
+            if (!ids.isEmpty()) {
+                counts.put(personId, ids.size());
+            }
+        });
+        return counts;
+    }
+
+    @Override
+    public Task deleteByName(String name) {
+        ObjectId id = idsByName.get(name);
+        if (id == null) {
+            return null;
+        }
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            Task removed = tasks.remove(id);
+            if (removed == null) {
+                return null;
+            }
+            idsByName.remove(name, id);
+            unindex(removed);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteByNames(Collection<String> names) {
+        for (String name : names) {
+            deleteByName(name);
+        }
+    }
+
+    @Override
+    public Task updateChangedFields(Task current, Task requested) {
+        ReentrantLock lock = locks.lockFor(current.getId());
+        lock.lock();
+        try {
+            Task stored = tasks.get(current.getId());
+            if (stored == null || !FieldChanges.versionMatches(stored.getVersion(), current.getVersion(), requested.getVersion())) {
+                return null;
+            }
+            Task updated = copy(stored);
+            FieldChanges<Task> changes = new FieldChanges<>(current, requested, stored, updated)
+                    .field(Task::getName, Task::setName)
+                    .field(Task::getDescription, Task::setDescription)
+                    .field(Task::getDateOfCreation, Task::setDateOfCreation)
+                    .field(Task::getDone, Task::setDone)
+                    .field(Task::getPersonAssignedId, Task::setPersonAssignedId)
+                    .field(Task::getPartition, Task::setPartition);
+            if (changes.hasConflict()) {
+                return null;
+            }
+            if (!changes.hasChanges()) {
+                return current;
+            }
+            if (updated.getDone() != stored.getDone()) {
+                updated.setDateOfCompletion(updated.getDone() ? LocalDate.now() : null);
+            }
+            rename(stored.getName(), updated.getName(), stored.getId());
+            updated.setVersion(nextVersion(stored.getVersion()));
+            replace(stored, updated);
+            return copy(updated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<Integer, String> updateAllByName(List<Task> tasks) {
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            boolean updated = update(task.getName(), stored -> {
+                Task requested = copy(task);
+                requested.setId(stored.getId());
+                requested.setDateOfCompletion(task.getDone() ? stored.getDateOfCompletion() : null);
+                if (task.getPersonAssignedId() == null) {
+                    requested.setPersonAssignedId(stored.getPersonAssignedId());
+                }
+                return requested;
+            });
+            if (!updated) {
+                errors.put(i, notFound("task", task.getName()));
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public void setAssignee(String name, ObjectId personId) {
+        update(name, stored -> {
+            Task updated = copy(stored);
+            updated.setPersonAssignedId(personId);
+            return updated;
+        });
+    }
+
+    @Override
+    public long setAssignees(List<Task> tasks, long fence) {
+        long assigned = 0;
+        for (Task task : tasks) {
+            ReentrantLock lock = locks.lockFor(task.getId());
+            lock.lock();
+            try {
+                Task stored = this.tasks.get(task.getId());
+                if (stored != null) {
+                    Task updated = copy(stored);
+                    updated.setPersonAssignedId(task.getPersonAssignedId());
+                    updated.setVersion(nextVersion(stored.getVersion()));
+                    replace(stored, updated);
+                    assigned++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return assigned;
+    }
+
+    @Override
+    public long dateUndatedCompletions(LocalDate date) {
+        long dated = 0;
+        for (Task task : tasks.values()) {
+            if (task.getDone() && task.getDateOfCompletion() == null && replaceIf(task.getId(),
+                    stored -> stored.getDone() && stored.getDateOfCompletion() == null, stored -> {
+                        Task updated = copy(stored);
+                        updated.setDateOfCompletion(date);
+                        updated.setVersion(nextVersion(stored.getVersion()));
+                        return updated;
+                    })) {
+                dated++;
+            }
+        }
+        return dated;
+    }
+
+    /**
+     * Scans every task, as done tasks are not indexed; it runs once per archival pass, off the request path.
+     */
+    @Override
+    public List<Task> findCompletedBefore(LocalDate cutoff, int limit) {
+        return tasks.values().stream()
+                .filter(task -> completedBefore(task, cutoff))
+                .sorted(BY_COMPLETION)
+                .limit(limit)
+                .map(InMemoryTaskStore::copy)
+                .toList();
+    }
+
+    @Override
+    public Set<ObjectId> deleteCompletedBefore(Collection<ObjectId> ids, LocalDate cutoff) {
+        Set<ObjectId> deleted = new HashSet<>();
+        for (ObjectId id : ids) {
+            if (replaceIf(id, stored -> completedBefore(stored, cutoff), stored -> null)) {
+                deleted.add(id);
+            }
+        }
+        return deleted;
+    }
+
+    private static boolean completedBefore(Task task, LocalDate cutoff) {
+        return task.getDone() && task.getDateOfCompletion() != null && task.getDateOfCompletion().isBefore(cutoff);
+    }
+
+    /**
+     * Under the task's lock, replaces the task with the result of change if it still passes the check, or
+     * removes it when change returns null; returns whether it did.
+     */
+    private boolean replaceIf(ObjectId id, Predicate<Task> check, UnaryOperator<Task> change) {
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            Task stored = tasks.get(id);
+            if (stored == null || !check.test(stored)) {
+                return false;
+            }
+            Task updated = change.apply(stored);
+            if (updated == null) {
+                tasks.remove(id);
+                idsByName.remove(stored.getName(), id);
+                unindex(stored);
+            } else {
+                replace(stored, updated);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns false when no task has the name.
+     */
+    private boolean update(String name, UnaryOperator<Task> change) {
+        ObjectId id = idsByName.get(name);
+        if (id == null) {
+            return false;
+        }
+        ReentrantLock lock = locks.lockFor(id);
+        lock.lock();
+        try {
+            Task stored = tasks.get(id);
+            if (stored == null) {
+                return false;
+            }
+            Task updated = change.apply(stored);
+            updated.setName(stored.getName());
+            updated.setVersion(nextVersion(stored.getVersion()));
+            replace(stored, updated);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rename(String oldName, String newName, ObjectId id) {
+        if (oldName.equals(newName)) {
+            return;
+        }
+        if (idsByName.putIfAbsent(newName, id) != null) {
+            throw duplicateKey("name", newName);
+        }
+        idsByName.remove(oldName, id);
+    }
+
+    private Task storedByName(String name) {
+        ObjectId id = idsByName.get(name);
+        return id == null ? null : tasks.get(id);
+    }
+
+    private void replace(Task stored, Task updated) {
+        unindex(stored);
+        tasks.put(updated.getId(), updated);
+        index(updated);
+    }
+
+    private void index(Task task) {
+        if (task.getDone()) {
+            return;
+        }
+        if (task.getPersonAssignedId() == null) {
+            openUnassigned.add(task.getId());
+        } else {
+            openByAssignee.computeIfAbsent(task.getPersonAssignedId(), key -> ConcurrentHashMap.newKeySet())
+                    .add(task.getId());
+        }
+    }
+
+    private void unindex(Task task) {
+        if (task.getDone()) {
+            return;
+        }
+        if (task.getPersonAssignedId() == null) {
+            openUnassigned.remove(task.getId());
+        } else {
+            Set<ObjectId> ids = openByAssignee.get(task.getPersonAssignedId());
+            if (ids != null) {
+                ids.remove(task.getId());
+            }
+        }
+    }
+
+    static Long nextVersion(Long version) {
+        return version == null ? 1L : version + 1;
+    }
+
+    /**
+     * The error reported for an entry of a batch update whose name matched nothing.
+     */
+    static String notFound(String entity, String name) {
+        return String.format("No %s named %s", entity, name);
+    }
+
+    static MongoException duplicateKey(String field, Object value) {
+        return new MongoException(11000, String.format("E11000 duplicate key error: %s %s", field, value));
+    }
+
+    /**
+     * Applies the fields in which requested differs from current onto updated, and notes a conflict when the
+     * stored value of such a field is no longer current's, the in-memory counterpart of a guarded $set.
+     */
+    static final class FieldChanges<T> {
+
+        private final T current;
+        private final T requested;
+        private final T stored;
+        private final T updated;
+        private boolean changed;
+        private boolean conflict;
+
+        FieldChanges(T current, T requested, T stored, T updated) {
+            this.current = current;
+            this.requested = requested;
+            this.stored = stored;
+            this.updated = updated;
+        }
+
+        /**
+         * A caller that sent a version expects the whole entity unchanged since it read current.
+         */
+        static boolean versionMatches(Long storedVersion, Long currentVersion, Long requestedVersion) {
+            return requestedVersion == null || Objects.equals(storedVersion, currentVersion);
+        }
+
+        <V> FieldChanges<T> field(Function<T, V> getter, BiConsumer<T, V> setter) {
+            V before = getter.apply(current);
+            V after = getter.apply(requested);
+            if (!Objects.equals(before, after)) {
+                changed = true;
+                if (Objects.equals(getter.apply(stored), before)) {
+                    setter.accept(updated, after);
+                } else {
+                    conflict = true;
+                }
+            }
+            return this;
+        }
+
+        boolean hasChanges() {
+            return changed;
+        }
+
+        boolean hasConflict() {
+            return conflict;
+        }
+    }
+
+    static Task copy(Task task) {
+        Task copy = new Task(task.getId(), task.getName(), task.getDescription(), task.getDateOfCreation(),
+                task.getDone(), task.getPersonAssignedId());
+        copy.setDateOfCompletion(task.getDateOfCompletion());
+        copy.setVersion(task.getVersion());
+        copy.setPartition(task.getPartition());
+        return copy;
+    }
+}
@@ -0,0 +1,196 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Applies the assignment consequences of a single write instead of re-balancing the whole data set.
+ * Every method touches only the documents affected by the change it is told about, and returns false when
+ * it could not settle the change, because a write failed or a task found no eligible person; only then
+ * does the caller fall back to a full assignment pass.
+ */
+@Service
+public class IncrementalAssignTasksServices {
+
+    private final TaskStore taskStore;
+    private final PersonStore personStore;
+    private final EntityCache<Person> personCache;
+    private final EntityCache<Task> taskCache;
+    private final AssignmentFeed assignmentFeed;
+    private final boolean partitioned;
+    private final Logger logger;
+
+    @Autowired
+    public IncrementalAssignTasksServices(TaskStore taskStore, PersonStore personStore,
+                                          EntityCache<Person> personCache, EntityCache<Task> taskCache, AssignmentFeed assignmentFeed,
+                                          @Value("${assignment.partitioned:false}") boolean partitioned) {
+        this.taskStore = taskStore;
+        this.personStore = personStore;
+        this.personCache = personCache;
+        this.taskCache = taskCache;
+        this.assignmentFeed = assignmentFeed;
+        this.partitioned = partitioned;
+        logger = Logger.getLogger(IncrementalAssignTasksServices.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    public boolean taskCreated(Task task) {
+        if (task.getDone()) {
+            return true;
+        }
+        try {
+            ObjectId requestedId = getCountedPersonId(task);
+            return requestedId != null && incrementAvailablePerson(requestedId) || assignToLeastLoadedPerson(task);
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return false;
+        }
+    }
+
+    public boolean taskUpdated(Task oldTask, Task newTask) {
+        ObjectId oldId = getCountedPersonId(oldTask);
+        ObjectId newId = getCountedPersonId(newTask);
+        try {
+            if (Objects.equals(oldId, newId)) {
+                return newId != null || newTask.getDone() || assignToLeastLoadedPerson(newTask);
+            }
+            if (oldId != null) {
+                incrementPerson(oldId, -1);
+            }
+            if (newId != null) {
+                return incrementAvailablePerson(newId) || assignToLeastLoadedPerson(newTask);
+            }
+            return newTask.getDone() || assignToLeastLoadedPerson(newTask);
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return false;
+        }
+    }
+
+    public boolean taskDeleted(Task task) {
+        ObjectId personId = getCountedPersonId(task);
+        try {
+            if (personId != null) {
+                incrementPerson(personId, -1);
+            }
+            return true;
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return false;
+        }
+    }
+
+    public boolean personCreated(Person person) {
+        try {
+            return !person.getAvailability() || assignAll(taskStore.findOpenByAssignee(null));
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return false;
+        }
+    }
+
+    public boolean personUpdated(Person oldPerson, Person newPerson) {
+        try {
+            if (oldPerson.getAvailability() && !newPerson.getAvailability()) {
+                List<Task> tasks = taskStore.findOpenByAssignee(newPerson.getId());
+                boolean assigned = assignAll(tasks);
+                incrementPerson(newPerson.getId(), -tasks.size());
+                return assigned;
+            }
+            if (!oldPerson.getAvailability() && newPerson.getAvailability()) {
+                return assignAll(taskStore.findOpenByAssignee(null));
+            }
+            return true;
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return false;
+        }
+    }
+
+    public boolean personDeleted(Person person) {
+        try {
+            return assignAll(taskStore.findOpenByAssignee(person.getId()));
+        } catch (MongoException me) {
+            handleMongoException(me);
+            return false;
+        }
+    }
+
+    private ObjectId getCountedPersonId(Task task) {
+        if (task.getDone()) {
+            return null;
+        }
+        return task.getPersonAssignedId();
+    }
+
+    /**
+     * Returns false when no person could take the task, which leaves it unassigned.
+     */
+    private boolean assignToLeastLoadedPerson(Task task) {
+        Person person = personStore.incrementLeastLoaded(partitioned, task.getPartition());
+        if (person != null) {
+            personCache.invalidate(person.getName());
+            assignmentFeed.personCountChanged(person);
+        }
+        if (person == null && task.getPersonAssignedId() == null) {
+            return false;
+        }
+        task.setPersonAssignedId(person != null ? person.getId() : null);
+        taskStore.setAssignee(task.getName(), task.getPersonAssignedId());
+        taskCache.invalidate(task.getName());
+        assignmentFeed.taskReassigned(task);
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Assigned task %s to %s", task.getName(),
+                    person != null ? person.getName() : "none"));
+        }
+        return person != null;
+    }
+
+    /**
+     * Assigns every task it can; returns false if any was left unassigned.
+     */
+    private boolean assignAll(List<Task> tasks) {
+        boolean assigned = true;
+        for (Task task : tasks) {
+            assigned &= assignToLeastLoadedPerson(task);
+        }
+        return assigned;
+    }
+
+    private boolean incrementAvailablePerson(ObjectId personId) {
+        return incrementMatchingPerson(personId, 1, true);
+    }
+
+    private void incrementPerson(ObjectId personId, int delta) {
+        if (delta != 0) {
+            incrementMatchingPerson(personId, delta, false);
+        }
+    }
+
+    private boolean incrementMatchingPerson(ObjectId personId, int delta, boolean availableOnly) {
+        Person person = personStore.incrementCount(personId, delta, availableOnly);
+        if (person == null) {
+            return false;
+        }
+        personCache.invalidate(person.getName());
+        assignmentFeed.personCountChanged(person);
+        return true;
+    }
+
+    private void handleMongoException(MongoException me) {
+        if (getLogger().isLoggable(Level.SEVERE)) {
+            getLogger().log(Level.SEVERE, "Storage operation failed: ", me);
+        }
+    }
+}
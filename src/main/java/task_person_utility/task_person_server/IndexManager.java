@@ -0,0 +1,144 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Declares the indexes the services rely on and creates them at startup.
+ * With db.indexes.verify-plans enabled every hot query is explained and startup fails if one of them
+ * would run as a collection scan.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "mongo", matchIfMissing = true)
+public class IndexManager {
+
+    private final MongoCollection<Document> tasksDB;
+    private final MongoCollection<Document> personsDB;
+    private final MongoCollection<Document> archiveDB;
+    private final boolean verifyPlans;
+    private final Logger logger;
+
+    @Autowired
+    public IndexManager(MongoDatabase mongoDatabase,
+                        @Value("${db.indexes.verify-plans:false}") boolean verifyPlans) {
+        tasksDB = mongoDatabase.getCollection("tasks");
+        personsDB = mongoDatabase.getCollection("persons");
+        archiveDB = mongoDatabase.getCollection("tasks_archive");
+        this.verifyPlans = verifyPlans;
+        logger = Logger.getLogger(IndexManager.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    @PostConstruct
+    public void initializeIndexes() {
+        ensureIndexes();
+        if (verifyPlans) {
+            verifyQueryPlans();
+        }
+    }
+
+    public void ensureIndexes() {
+        try {
+            personsDB.createIndex(Indexes.ascending("name"), new IndexOptions().unique(true).name("name_unique"));
+            personsDB.createIndex(Indexes.ascending("availability", "tasksAssignedNumber"),
+                    new IndexOptions().name("availability_tasksAssignedNumber"));
+            personsDB.createIndex(Indexes.ascending("partition", "availability", "tasksAssignedNumber"),
+                    new IndexOptions().name("partition_availability_tasksAssignedNumber"));
+            tasksDB.createIndex(Indexes.ascending("name"), new IndexOptions().unique(true).name("name_unique"));
+            tasksDB.createIndex(Indexes.ascending("done", "personAssignedId"),
+                    new IndexOptions().name("done_personAssignedId"));
+            tasksDB.createIndex(Indexes.ascending("personAssignedId"), new IndexOptions().name("personAssignedId"));
+            tasksDB.createIndex(Indexes.ascending("done", "dateOfCompletion", "_id"),
+                    new IndexOptions().name("done_dateOfCompletion_id"));
+            archiveDB.createIndex(Indexes.ascending("personAssignedId", "_id"),
+                    new IndexOptions().name("personAssignedId_id"));
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to create indexes in MongoDB due to an error: ", me);
+            }
+        }
+    }
+
+    public void verifyQueryPlans() {
+        Map<String, FindIterable<Document>> hotQueries = new LinkedHashMap<>();
+        hotQueries.put("persons by name", personsDB.find(Filters.eq("name", "")));
+        hotQueries.put("persons by availability", personsDB.find(Filters.eq("availability", true))
+                .sort(Sorts.ascending("tasksAssignedNumber")));
+        hotQueries.put("persons by partition and availability", personsDB.find(Filters.and(
+                Filters.eq("partition", ""), Filters.eq("availability", true))).sort(Sorts.ascending("tasksAssignedNumber")));
+        hotQueries.put("tasks by name", tasksDB.find(Filters.eq("name", "")));
+        hotQueries.put("open tasks", tasksDB.find(Filters.eq("done", false)));
+        hotQueries.put("open tasks by person", tasksDB.find(openTasksOf(new ObjectId())));
+        hotQueries.put("tasks by person", tasksDB.find(Filters.eq("personAssignedId", new ObjectId())));
+        hotQueries.put("open unassigned tasks", tasksDB.find(openTasksOf(null)));
+        hotQueries.put("completed tasks to archive", tasksDB.find(Filters.and(Filters.eq("done", true),
+                Filters.lt("dateOfCompletion", new Date()))).sort(Sorts.ascending("dateOfCompletion", "_id")));
+        hotQueries.put("archived tasks by person", archiveDB.find(Filters.eq("personAssignedId", new ObjectId()))
+                .sort(Sorts.ascending("_id")));
+
+        List<String> collectionScans = new ArrayList<>();
+        for (Map.Entry<String, FindIterable<Document>> query : hotQueries.entrySet()) {
+            Document plan = query.getValue().explain(ExplainVerbosity.QUERY_PLANNER);
+            Object winningPlan = plan.get("queryPlanner", Document.class).get("winningPlan");
+            if (containsStage(winningPlan, "COLLSCAN")) {
+                collectionScans.add(query.getKey());
+            }
+        }
+        if (!collectionScans.isEmpty()) {
+            throw new IllegalStateException("Queries fall back to a collection scan: " + collectionScans);
+        }
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Verified index usage of %d hot queries", hotQueries.size()));
+        }
+    }
+
+    private Bson openTasksOf(ObjectId personId) {
+        return Filters.and(Filters.eq("done", false), Filters.eq("personAssignedId", personId));
+    }
+
+    private boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object value : document.values()) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        } else if (plan instanceof List<?> list) {
+            for (Object value : list) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
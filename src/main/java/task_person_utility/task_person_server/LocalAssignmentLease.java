@@ -0,0 +1,36 @@
+package task_person_utility.task_person_server;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lease for the in-memory engine, whose data lives in this process only, so no other instance can compete.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "memory")
+public class LocalAssignmentLease implements AssignmentLease {
+
+    private long lastToken;
+    private long heldToken = NO_LEASE;
+
+    @Override
+    public synchronized long tryAcquire() {
+        if (heldToken != NO_LEASE) {
+            return NO_LEASE;
+        }
+        heldToken = ++lastToken;
+        return heldToken;
+    }
+
+    @Override
+    public synchronized boolean isHeld(long token) {
+        return token != NO_LEASE && heldToken == token;
+    }
+
+    @Override
+    public synchronized void release(long token) {
+        if (heldToken == token) {
+            heldToken = NO_LEASE;
+        }
+    }
+}
@@ -1,20 +1,55 @@
 package task_person_utility.task_person_server;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api")
 @CrossOrigin(origins = "http://localhost:3000")
 public class MainController {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int STREAM_FLUSH_INTERVAL = 1000;
+
     @Autowired
     private PersonServices personServices;
     @Autowired
     private TaskServices taskServices;
     @Autowired
-    private AssignTasksServices assignTasksServices;
+    private BatchServices batchServices;
+    @Autowired
+    private BulkTransferServices bulkTransferServices;
+    @Autowired
+    private TaskArchiver taskArchiver;
+    @Autowired
+    private AssignmentScheduler assignmentScheduler;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private AssignmentFeed assignmentFeed;
+    @Autowired
+    private EntityCache<Person> personCache;
+    @Autowired
+    private EntityCache<Task> taskCache;
 
     // Person API endpoints
     @GetMapping("/persons")
@@ -22,11 +57,51 @@ public class MainController {
         return personServices.getAllPersons();
     }
 
+    @GetMapping("/persons/page")
+    public Page<Person> getPersonsPage(@RequestParam(required = false) String after,
+                                       @RequestParam(defaultValue = "" + Page.DEFAULT_SIZE) int limit) {
+        return personServices.getPersonsPage(Page.checkCursor(after), Page.checkLimit(limit));
+    }
+
+    @GetMapping(value = "/persons/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamPersons() {
+        return toNdjson(personServices::streamPersons);
+    }
+
+    @PostMapping("/persons/import")
+    public ImportReport importPersons(@RequestParam(defaultValue = "ndjson") String format, InputStream body)
+            throws IOException {
+        ImportReport report = bulkTransferServices.importPersons(body, BulkFormat.of(format));
+        assignmentScheduler.requestAssignment();
+        return report;
+    }
+
+    @GetMapping("/persons/export")
+    public ResponseEntity<StreamingResponseBody> exportPersons(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return toExport("persons", bulkFormat, out -> bulkTransferServices.exportPersons(out, bulkFormat));
+    }
+
     @PostMapping("/persons")
     public Person createPerson(@RequestBody Person person) {
         return personServices.createPerson(person);
     }
 
+    @PostMapping("/persons/batch")
+    public List<BatchItemResult> createPersons(@RequestBody List<Person> persons) {
+        return batchServices.createPersons(persons);
+    }
+
+    @PutMapping("/persons/batch")
+    public List<BatchItemResult> updatePersons(@RequestBody List<Person> persons) {
+        return batchServices.updatePersons(persons);
+    }
+
+    @DeleteMapping("/persons/batch")
+    public List<BatchItemResult> deletePersons(@RequestBody List<String> names) {
+        return batchServices.deletePersons(names);
+    }
+
     @PutMapping("/persons/{name}")
     public Person updatePerson(@PathVariable String name, @RequestBody Person person) {
         return personServices.updatePerson(name, person);
@@ -37,17 +112,72 @@ public class MainController {
         return personServices.deletePerson(name);
     }
 
+    @PostMapping("/persons/reconcile")
+    public boolean reconcilePersons() {
+        return assignmentScheduler.requestReconcile();
+    }
+
     // Task API endpoints
     @GetMapping("/tasks")
     public List<Task> getAllTasks() {
         return taskServices.getAllTasks();
     }
 
+    @GetMapping("/tasks/page")
+    public Page<Task> getTasksPage(@RequestParam(required = false) String after,
+                                   @RequestParam(defaultValue = "" + Page.DEFAULT_SIZE) int limit) {
+        return taskServices.getTasksPage(Page.checkCursor(after), Page.checkLimit(limit));
+    }
+
+    @GetMapping("/tasks/archive")
+    public Page<Task> getArchivedTasksPage(@RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "" + Page.DEFAULT_SIZE) int limit,
+                                           @RequestParam(required = false) String person) {
+        return taskArchiver.getArchivedTasksPage(Page.checkCursor(after), Page.checkLimit(limit), person);
+    }
+
+    @GetMapping(value = "/tasks/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamTasks() {
+        return toNdjson(taskServices::streamTasks);
+    }
+
+    /**
+     * Task counts are recomputed once the whole file is in, then assigned in a single pass.
+     */
+    @PostMapping("/tasks/import")
+    public ImportReport importTasks(@RequestParam(defaultValue = "ndjson") String format, InputStream body)
+            throws IOException {
+        ImportReport report = bulkTransferServices.importTasks(body, BulkFormat.of(format));
+        assignmentScheduler.requestReconciledAssignment();
+        return report;
+    }
+
+    @GetMapping("/tasks/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return toExport("tasks", bulkFormat, out -> bulkTransferServices.exportTasks(out, bulkFormat));
+    }
+
     @PostMapping("/tasks")
     public Task createTask(@RequestBody Task task) {
         return taskServices.createTask(task);
     }
 
+    @PostMapping("/tasks/batch")
+    public List<BatchItemResult> createTasks(@RequestBody List<Task> tasks) {
+        return batchServices.createTasks(tasks);
+    }
+
+    @PutMapping("/tasks/batch")
+    public List<BatchItemResult> updateTasks(@RequestBody List<Task> tasks) {
+        return batchServices.updateTasks(tasks);
+    }
+
+    @DeleteMapping("/tasks/batch")
+    public List<BatchItemResult> deleteTasks(@RequestBody List<String> names) {
+        return batchServices.deleteTasks(names);
+    }
+
     @PutMapping("/tasks/{name}")
     public Task updateTask(@PathVariable String name, @RequestBody Task task) {
         return taskServices.updateTask(name, task);
@@ -61,6 +191,57 @@ public class MainController {
     // Additional endpoints
     @GetMapping("/tasks/assign")
     public boolean assignTasks() {
-        return assignTasksServices.assignTasks(true);
+        return assignmentScheduler.requestAssignment(true);
+    }
+
+    @GetMapping("/tasks/assign/stats")
+    public Map<String, Long> getAssignmentStats() {
+        return assignmentScheduler.getStats();
+    }
+
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AssignmentEvent>> getAssignmentFeed(@RequestParam(required = false) Set<AssignmentEvent.Type> types,
+                                                                    @RequestParam(required = false) String person) {
+        return assignmentFeed.subscribe(types, person);
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Long>> getCacheStats() {
+        return Map.of("persons", personCache.getStats(), "tasks", taskCache.getStats());
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ProblemDetail handleVersionConflict(VersionConflictException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    private ResponseEntity<StreamingResponseBody> toExport(String entities, BulkFormat format,
+                                                           StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + entities + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * The stream is opened only once the response body is written, on the async thread that writes it.
+     */
+    private ResponseEntity<StreamingResponseBody> toNdjson(Supplier<? extends Stream<?>> documents) {
+        StreamingResponseBody body = out -> {
+            int written = 0;
+            try (Stream<?> stream = documents.get()) {
+                Iterator<?> documentIterator = stream.iterator();
+                while (documentIterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(documentIterator.next()));
+                    out.write('\n');
+                    if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                        out.flush();
+                    }
+                }
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
 }
@@ -0,0 +1,252 @@
+package task_person_utility.task_person_server;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BSONException;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Optional persistence of the in-memory engine, enabled by setting storage.memory.snapshot-dir. The stores
+ * are loaded from persons.bson, tasks.bson and tasks_archive.bson on startup and written back periodically and on shutdown.
+ * The files hold concatenated BSON documents like mongodump output, so a snapshot can be restored into
+ * MongoDB with mongorestore and a dump loaded here.
+ * <p>
+ * A snapshot is taken while writes go on, so a task count may not match the tasks saved next to it;
+ * a reconciliation is requested after loading to repair that. A file that cannot be read is logged, left
+ * out and moved aside to a .unreadable file, so the next snapshot does not overwrite what may be recovered.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "memory")
+public class MemorySnapshots {
+
+    private static final int MIN_DOCUMENT_SIZE = 5;
+    private static final int MAX_DOCUMENT_SIZE = 16 * 1024 * 1024;
+
+    private final PersonStore personStore;
+    private final TaskStore taskStore;
+    private final TaskArchive taskArchive;
+    private final AssignmentScheduler assignmentScheduler;
+    private final Path directory;
+    private final long snapshotIntervalMillis;
+    private final Codec<Person> personCodec;
+    private final Codec<Task> taskCodec;
+    private final ScheduledExecutorService executor;
+    private final Logger logger;
+
+    @Autowired
+    public MemorySnapshots(PersonStore personStore, TaskStore taskStore, TaskArchive taskArchive,
+                           AssignmentScheduler assignmentScheduler,
+                           @Value("${storage.memory.snapshot-dir:}") String snapshotDir,
+                           @Value("${storage.memory.snapshot-interval-ms:60000}") long snapshotIntervalMillis) {
+        this.personStore = personStore;
+        this.taskStore = taskStore;
+        this.taskArchive = taskArchive;
+        this.assignmentScheduler = assignmentScheduler;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        CodecRegistry codecRegistry = DBUtil.createCodecRegistry();
+        personCodec = codecRegistry.get(Person.class);
+        taskCodec = codecRegistry.get(Task.class);
+        logger = Logger.getLogger(MemorySnapshots.class.getName());
+        if (snapshotDir.isBlank()) {
+            directory = null;
+            executor = null;
+            return;
+        }
+        directory = Path.of(snapshotDir);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "memory-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Loads the snapshot before the web server takes requests, then starts the periodic saves.
+     */
+    @PostConstruct
+    public void start() {
+        if (directory == null) {
+            return;
+        }
+        load();
+        if (snapshotIntervalMillis > 0) {
+            executor.scheduleWithFixedDelay(this::save, snapshotIntervalMillis, snapshotIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        save();
+    }
+
+    private void load() {
+        int persons = load("persons.bson", personCodec, personStore::insertAll);
+        int tasks = load("tasks.bson", taskCodec, taskStore::insertAll);
+        int archived = load("tasks_archive.bson", taskCodec, archivedTasks -> {
+            taskArchive.archiveAll(archivedTasks);
+            return Map.of();
+        });
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Loaded %d persons, %d tasks and %d archived tasks from %s",
+                    persons, tasks, archived, directory));
+        }
+        if (persons > 0 || tasks > 0) {
+            assignmentScheduler.requestReconcile();
+        }
+    }
+
+    /**
+     * Stores the documents of one file once all of them decoded; documents the store rejects, such as
+     * duplicate names, are logged and skipped. Returns how many were stored.
+     */
+    private <T> int load(String fileName, Codec<T> codec, Function<List<T>, Map<Integer, String>> sink) {
+        Path file = directory.resolve(fileName);
+        List<T> documents;
+        try {
+            documents = read(file, codec);
+        } catch (IOException | BSONException e) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, String.format("Skipping unreadable snapshot file %s: ", file), e);
+            }
+            moveAside(file);
+            return 0;
+        }
+        Map<Integer, String> errors = sink.apply(documents);
+        if (!errors.isEmpty() && getLogger().isLoggable(Level.WARNING)) {
+            getLogger().log(Level.WARNING, String.format("Skipped %d documents of %s, first error: %s",
+                    errors.size(), file, errors.values().iterator().next()));
+        }
+        return documents.size() - errors.size();
+    }
+
+    private void moveAside(Path file) {
+        try {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".unreadable"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, String.format("Unable to move %s aside: ", file), e);
+            }
+        }
+    }
+
+    synchronized void save() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Person> persons = personStore.streamAll()) {
+                write(directory.resolve("persons.bson"), personCodec, persons);
+            }
+            try (Stream<Task> tasks = taskStore.streamAll()) {
+                write(directory.resolve("tasks.bson"), taskCodec, tasks);
+            }
+            try (Stream<Task> tasks = taskArchive.streamAll()) {
+                write(directory.resolve("tasks_archive.bson"), taskCodec, tasks);
+            }
+        } catch (IOException e) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to write the snapshot due to an error: ", e);
+            }
+        }
+    }
+
+    private static <T> List<T> read(Path file, Codec<T> codec) throws IOException {
+        List<T> documents = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return documents;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] lengthBytes = new byte[4];
+            while (readLength(in, lengthBytes)) {
+                int length = ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+                if (length < MIN_DOCUMENT_SIZE || length > MAX_DOCUMENT_SIZE) {
+                    throw new IOException("Invalid BSON document length " + length);
+                }
+                byte[] document = new byte[length];
+                System.arraycopy(lengthBytes, 0, document, 0, 4);
+                in.readFully(document, 4, length - 4);
+                try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(document))) {
+                    documents.add(codec.decode(reader, DecoderContext.builder().build()));
+                }
+            }
+        }
+        return documents;
+    }
+
+    private static boolean readLength(InputStream in, byte[] lengthBytes) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return false;
+        }
+        lengthBytes[0] = (byte) first;
+        if (in.readNBytes(lengthBytes, 1, 3) < 3) {
+            throw new EOFException("Truncated BSON document");
+        }
+        return true;
+    }
+
+    /**
+     * Writes to a temporary file and moves it over the previous snapshot, so a crash mid-write leaves
+     * the last complete snapshot in place.
+     */
+    private static <T> void write(Path file, Codec<T> codec, Stream<T> documents) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            BasicOutputBuffer buffer = new BasicOutputBuffer();
+            for (T document : (Iterable<T>) documents::iterator) {
+                buffer.truncateToPosition(0);
+                try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                    codec.encode(writer, document, EncoderContext.builder().build());
+                }
+                buffer.pipe(out);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
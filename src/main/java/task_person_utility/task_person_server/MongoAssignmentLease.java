@@ -0,0 +1,113 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lease stored in the leases collection, shared by every instance using the same database.
+ * The fencing token is stamped into written documents as {@value #FENCE_FIELD}.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoAssignmentLease implements AssignmentLease {
+
+    static final String FENCE_FIELD = "assignmentFence";
+
+    private static final String LEASE_ID = "assignment";
+
+    private final MongoCollection<Document> leasesDB;
+    private final String owner;
+    private final long ttlMillis;
+    private final Logger logger;
+
+    @Autowired
+    public MongoAssignmentLease(MongoDatabase mongoDatabase,
+                                @Value("${assignment.lease.ttl-ms:60000}") long ttlMillis) {
+        leasesDB = mongoDatabase.getCollection("leases");
+        owner = UUID.randomUUID().toString();
+        this.ttlMillis = ttlMillis;
+        logger = Logger.getLogger(MongoAssignmentLease.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public long tryAcquire() {
+        long now = System.currentTimeMillis();
+        Bson filter = Filters.and(Filters.eq("_id", LEASE_ID),
+                Filters.or(Filters.lt("expiresAt", new Date(now)), Filters.eq("owner", owner)));
+        Bson update = Updates.combine(
+                Updates.set("owner", owner),
+                Updates.set("expiresAt", new Date(now + ttlMillis)),
+                Updates.inc("fencingToken", 1L)
+        );
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+        try {
+            Document lease = leasesDB.findOneAndUpdate(filter, update, options);
+            return lease == null ? NO_LEASE : lease.getLong("fencingToken");
+        } catch (MongoException me) {
+            // A duplicate key means the upsert lost against a lease another instance still holds
+            if (ErrorCategory.fromErrorCode(me.getCode()) != ErrorCategory.DUPLICATE_KEY
+                    && getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to acquire the assignment lease due to an error: ", me);
+            }
+            return NO_LEASE;
+        }
+    }
+
+    @Override
+    public boolean isHeld(long token) {
+        try {
+            return leasesDB.find(Filters.and(Filters.eq("_id", LEASE_ID), Filters.eq("owner", owner),
+                    Filters.eq("fencingToken", token), Filters.gt("expiresAt", new Date()))).first() != null;
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to check the assignment lease due to an error: ", me);
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public void release(long token) {
+        try {
+            leasesDB.updateOne(Filters.and(Filters.eq("_id", LEASE_ID), Filters.eq("owner", owner),
+                    Filters.eq("fencingToken", token)), Updates.set("expiresAt", new Date(0)));
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to release the assignment lease due to an error: ", me);
+            }
+        }
+    }
+
+    /**
+     * Restricts a write to documents not yet stamped by a newer lease holder; unfenced writes pass
+     * {@link #NO_LEASE} and are left as they are.
+     */
+    static Bson fenced(Bson filter, long token) {
+        return token == NO_LEASE ? filter : Filters.and(filter, Filters.not(Filters.gt(FENCE_FIELD, token)));
+    }
+
+    static Bson fence(Bson update, long token) {
+        return token == NO_LEASE ? update : Updates.combine(update, Updates.set(FENCE_FIELD, token));
+    }
+}
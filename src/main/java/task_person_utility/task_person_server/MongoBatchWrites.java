@@ -0,0 +1,69 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.WriteModel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Unordered batch writes that report the failure of every item by its index instead of failing as a whole.
+ */
+final class MongoBatchWrites {
+
+    private static final Logger logger = Logger.getLogger(MongoBatchWrites.class.getName());
+
+    private MongoBatchWrites() {
+    }
+
+    static <T> Map<Integer, String> insertAll(MongoCollection<T> collection, List<T> documents) {
+        Map<Integer, String> errors = new HashMap<>();
+        if (documents.isEmpty()) {
+            return errors;
+        }
+        try {
+            collection.insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException me) {
+            for (BulkWriteError error : me.getWriteErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        } catch (MongoException me) {
+            failAll(errors, documents.size(), me);
+        }
+        return errors;
+    }
+
+    static <T> Map<Integer, String> bulkWrite(MongoCollection<T> collection, List<WriteModel<T>> writes) {
+        Map<Integer, String> errors = new HashMap<>();
+        if (writes.isEmpty()) {
+            return errors;
+        }
+        try {
+            collection.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        } catch (MongoBulkWriteException me) {
+            for (BulkWriteError error : me.getWriteErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        } catch (MongoException me) {
+            failAll(errors, writes.size(), me);
+        }
+        return errors;
+    }
+
+    private static void failAll(Map<Integer, String> errors, int size, MongoException me) {
+        if (logger.isLoggable(Level.SEVERE)) {
+            logger.log(Level.SEVERE, "MongoDB batch operation failed: ", me);
+        }
+        for (int i = 0; i < size; i++) {
+            errors.put(i, me.getMessage());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the Mongo client settings from the spring.data.mongodb.* properties.
+ * The properties are applied first and the connection string second, so options written into the URI win.
+ * The write concern stays at the driver's acknowledged default; set spring.data.mongodb.write-concern to
+ * majority to have writes survive a primary failover, at the cost of waiting for the secondaries.
+ * Besides the command metrics, the pool publishes its size, checked-out connections and wait queue
+ * (mongodb.driver.pool.*) and the time spent waiting for a connection (mongodb.driver.pool.checkout).
+ */
+@Component
+public class MongoClientFactory {
+
+    private final String connectionString;
+    private final String databaseName;
+    private final int minPoolSize;
+    private final int maxPoolSize;
+    private final int maxConnecting;
+    private final long maxWaitMillis;
+    private final long maxConnectionIdleMillis;
+    private final int connectTimeoutMillis;
+    private final int socketTimeoutMillis;
+    private final String compressors;
+    private final String readPreference;
+    private final String writeConcern;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MongoClientFactory(MeterRegistry meterRegistry,
+                              @Value("${spring.data.mongodb.uri:mongodb://localhost:27017/}") String connectionString,
+                              @Value("${spring.data.mongodb.database:" + DBUtil.DATABASE_NAME + "}") String databaseName,
+                              @Value("${spring.data.mongodb.min-connections-per-host:0}") int minPoolSize,
+                              @Value("${spring.data.mongodb.max-connections-per-host:100}") int maxPoolSize,
+                              @Value("${spring.data.mongodb.max-connecting:2}") int maxConnecting,
+                              @Value("${spring.data.mongodb.max-wait-time:120000}") long maxWaitMillis,
+                              @Value("${spring.data.mongodb.max-connection-idle-time:0}") long maxConnectionIdleMillis,
+                              @Value("${spring.data.mongodb.connection-timeout:10000}") int connectTimeoutMillis,
+                              @Value("${spring.data.mongodb.socket-timeout:0}") int socketTimeoutMillis,
+                              @Value("${spring.data.mongodb.compressors:}") String compressors,
+                              @Value("${spring.data.mongodb.read-preference:primary}") String readPreference,
+                              @Value("${spring.data.mongodb.write-concern:acknowledged}") String writeConcern) {
+        this.meterRegistry = meterRegistry;
+        this.connectionString = connectionString;
+        this.databaseName = databaseName;
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.maxConnecting = maxConnecting;
+        this.maxWaitMillis = maxWaitMillis;
+        this.maxConnectionIdleMillis = maxConnectionIdleMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.compressors = compressors;
+        this.readPreference = readPreference;
+        this.writeConcern = writeConcern;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public MongoClientSettings createClientSettings() {
+        WriteConcern concern = WriteConcern.valueOf(writeConcern);
+        if (concern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + writeConcern);
+        }
+        return MongoClientSettings.builder()
+                .codecRegistry(DBUtil.createCodecRegistry())
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(minPoolSize)
+                        .maxSize(maxPoolSize)
+                        .maxConnecting(maxConnecting)
+                        .maxWaitTime(maxWaitMillis, TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(maxConnectionIdleMillis, TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry))
+                        .addConnectionPoolListener(new CheckoutTimer(meterRegistry)))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                        .readTimeout(socketTimeoutMillis, TimeUnit.MILLISECONDS))
+                .compressorList(parseCompressors(compressors))
+                .readPreference(ReadPreference.valueOf(readPreference))
+                .writeConcern(concern)
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                .applyConnectionString(new ConnectionString(connectionString))
+                .build();
+    }
+
+    private static List<MongoCompressor> parseCompressors(String compressors) {
+        List<MongoCompressor> compressorList = new ArrayList<>();
+        for (String name : compressors.split(",")) {
+            switch (name.trim().toLowerCase()) {
+                case "" -> { }
+                case "zlib" -> compressorList.add(MongoCompressor.createZlibCompressor());
+                case "snappy" -> compressorList.add(MongoCompressor.createSnappyCompressor());
+                case "zstd" -> compressorList.add(MongoCompressor.createZstdCompressor());
+                default -> throw new IllegalArgumentException("Unknown compressor: " + name);
+            }
+        }
+        return compressorList;
+    }
+
+    /**
+     * Records how long operations waited for a pooled connection, the number to watch when sizing the pool.
+     */
+    private static class CheckoutTimer implements ConnectionPoolListener {
+
+        private final Timer checkedOut;
+        private final Timer failed;
+
+        CheckoutTimer(MeterRegistry meterRegistry) {
+            checkedOut = checkoutTimer(meterRegistry, "success");
+            failed = checkoutTimer(meterRegistry, "failure");
+        }
+
+        private static Timer checkoutTimer(MeterRegistry meterRegistry, String outcome) {
+            return Timer.builder("mongodb.driver.pool.checkout")
+                    .description("Time spent waiting for a pooled connection")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+            checkedOut.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+            failed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoPersonStore implements PersonStore {
+
+    static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final FindOneAndUpdateOptions RETURN_AFTER =
+            new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+
+    private final MongoCollection<Person> personsDB;
+
+    @Autowired
+    public MongoPersonStore(MongoDatabase mongoDatabase) {
+        personsDB = mongoDatabase.getCollection("persons", Person.class);
+    }
+
+    @Override
+    public void insert(Person person) {
+        personsDB.insertOne(person);
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Person> persons) {
+        return MongoBatchWrites.insertAll(personsDB, persons);
+    }
+
+    @Override
+    public List<Person> findAll() {
+        return personsDB.find().into(new ArrayList<>());
+    }
+
+    @Override
+    public Stream<Person> streamAll() {
+        return MongoTaskStore.stream(personsDB.find().sort(Sorts.ascending("_id")).batchSize(STREAM_BATCH_SIZE).iterator());
+    }
+
+    @Override
+    public List<Person> findPage(ObjectId after, int limit, Collection<String> fields) {
+        Bson filter = after == null ? Filters.empty() : Filters.gt("_id", after);
+        return personsDB.find(filter).projection(MongoTaskStore.projection(fields)).sort(Sorts.ascending("_id"))
+                .limit(limit).into(new ArrayList<>());
+    }
+
+    @Override
+    public Person findByName(String name, Collection<String> fields) {
+        return personsDB.find(Filters.eq("name", name)).projection(MongoTaskStore.projection(fields)).first();
+    }
+
+    @Override
+    public Map<ObjectId, Person> findByIds(Collection<ObjectId> ids, Collection<String> fields) {
+        Map<ObjectId, Person> persons = new HashMap<>(ids.size() * 2);
+        for (Person person : personsDB.find(Filters.in("_id", ids)).projection(MongoTaskStore.projection(fields))) {
+            persons.put(person.getId(), person);
+        }
+        return persons;
+    }
+
+    @Override
+    public Set<String> findExistingNames(Collection<String> names) {
+        Set<String> existingNames = new HashSet<>();
+        personsDB.withDocumentClass(Document.class)
+                .find(Filters.in("name", names))
+                .projection(new Document("name", 1))
+                .forEach(person -> existingNames.add(person.getString("name")));
+        return existingNames;
+    }
+
+    @Override
+    public List<Person> findAllForAssignment() {
+        return personsDB.find().projection(PersonCodec.ASSIGNMENT_PROJECTION).into(new ArrayList<>());
+    }
+
+    @Override
+    public Person deleteByName(String name) {
+        return personsDB.findOneAndDelete(Filters.eq("name", name));
+    }
+
+    @Override
+    public void deleteByNames(Collection<String> names) {
+        personsDB.deleteMany(Filters.in("name", names));
+    }
+
+    @Override
+    public Person updateChangedFields(Person current, Person requested) {
+        List<Bson> updates = new ArrayList<>();
+        List<Bson> guards = new ArrayList<>();
+        guards.add(Filters.eq("_id", current.getId()));
+        MongoTaskStore.setIfChanged(updates, guards, "name", current.getName(), requested.getName());
+        MongoTaskStore.setIfChanged(updates, guards, "availability", current.getAvailability(), requested.getAvailability());
+        MongoTaskStore.setIfChanged(updates, guards, "partition", current.getPartition(), requested.getPartition());
+        if (updates.isEmpty()) {
+            return current;
+        }
+        if (requested.getVersion() != null) {
+            guards.add(Filters.eq("version", current.getVersion()));
+        }
+        updates.add(Updates.inc("version", 1L));
+        return personsDB.findOneAndUpdate(Filters.and(guards), ChangeStreamWatcher.serverWrite(Updates.combine(updates)),
+                RETURN_AFTER);
+    }
+
+    @Override
+    public Map<Integer, String> updateAvailabilityByName(List<Person> persons) {
+        List<WriteModel<Person>> writes = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            writes.add(new UpdateOneModel<>(Filters.eq("name", person.getName()),
+                    ChangeStreamWatcher.serverWrite(Updates.combine(Updates.set("availability", person.getAvailability()),
+                            Updates.inc("version", 1L)))));
+        }
+        return MongoBatchWrites.bulkWrite(personsDB, writes);
+    }
+
+    @Override
+    public Person incrementCount(ObjectId id, int delta, boolean availableOnly) {
+        Bson filter = availableOnly
+                ? Filters.and(Filters.eq("_id", id), Filters.eq("availability", true))
+                : Filters.eq("_id", id);
+        return personsDB.findOneAndUpdate(filter, countUpdate(delta), RETURN_AFTER);
+    }
+
+    @Override
+    public Person incrementLeastLoaded(boolean partitioned, String partition) {
+        Bson candidates = partitioned
+                ? Filters.and(Filters.eq("partition", partition), Filters.eq("availability", true))
+                : Filters.eq("availability", true);
+        return personsDB.findOneAndUpdate(candidates, countUpdate(1), new FindOneAndUpdateOptions()
+                .sort(Sorts.ascending("tasksAssignedNumber"))
+                .returnDocument(ReturnDocument.AFTER));
+    }
+
+    @Override
+    public void incrementCounts(Map<ObjectId, Integer> deltas, long fence) {
+        List<WriteModel<Person>> writes = new ArrayList<>(deltas.size());
+        deltas.forEach((personId, delta) -> {
+            if (delta != 0) {
+                writes.add(new UpdateOneModel<>(MongoAssignmentLease.fenced(Filters.eq("_id", personId), fence),
+                        MongoAssignmentLease.fence(countUpdate(delta), fence)));
+            }
+        });
+        if (!writes.isEmpty()) {
+            personsDB.bulkWrite(writes, UNORDERED);
+        }
+    }
+
+    @Override
+    public long setCountsIfUnchanged(Map<ObjectId, Integer> observed, Map<ObjectId, Integer> counts, long fence) {
+        List<WriteModel<Person>> writes = new ArrayList<>(counts.size());
+        counts.forEach((personId, count) -> writes.add(new UpdateOneModel<>(
+                MongoAssignmentLease.fenced(Filters.and(Filters.eq("_id", personId),
+                        Filters.eq("tasksAssignedNumber", observed.get(personId))), fence),
+                MongoAssignmentLease.fence(Updates.combine(Updates.set("tasksAssignedNumber", count),
+                        Updates.inc("version", 1L)), fence))));
+        if (writes.isEmpty()) {
+            return 0;
+        }
+        return personsDB.bulkWrite(writes, UNORDERED).getMatchedCount();
+    }
+
+    private static Bson countUpdate(int delta) {
+        return Updates.combine(Updates.inc("tasksAssignedNumber", delta), Updates.inc("version", 1L));
+    }
+}
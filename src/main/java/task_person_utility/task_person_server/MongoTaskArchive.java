@@ -0,0 +1,71 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoTaskArchive implements TaskArchive {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+
+    private final MongoCollection<Task> archiveDB;
+
+    @Autowired
+    public MongoTaskArchive(MongoDatabase mongoDatabase) {
+        archiveDB = mongoDatabase.getCollection("tasks_archive", Task.class);
+    }
+
+    @Override
+    public void archiveAll(List<Task> tasks) {
+        List<WriteModel<Task>> writes = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            writes.add(new ReplaceOneModel<>(Filters.eq("_id", task.getId()), task, UPSERT));
+        }
+        if (!writes.isEmpty()) {
+            archiveDB.bulkWrite(writes, MongoPersonStore.UNORDERED);
+        }
+    }
+
+    @Override
+    public void deleteByIds(Collection<ObjectId> ids) {
+        if (!ids.isEmpty()) {
+            archiveDB.deleteMany(Filters.in("_id", ids));
+        }
+    }
+
+    @Override
+    public List<Task> findPage(ObjectId after, int limit, ObjectId personId) {
+        List<Bson> filters = new ArrayList<>();
+        if (after != null) {
+            filters.add(Filters.gt("_id", after));
+        }
+        if (personId != null) {
+            filters.add(Filters.eq("personAssignedId", personId));
+        }
+        Bson filter = filters.isEmpty() ? Filters.empty() : Filters.and(filters);
+        return archiveDB.find(filter).sort(Sorts.ascending("_id")).limit(limit).into(new ArrayList<>());
+    }
+
+    @Override
+    public Stream<Task> streamAll() {
+        return MongoTaskStore.stream(archiveDB.find().sort(Sorts.ascending("_id")).batchSize(STREAM_BATCH_SIZE)
+                .iterator());
+    }
+}
@@ -0,0 +1,266 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Component
+@ConditionalOnProperty(name = "storage.engine", havingValue = "mongo", matchIfMissing = true)
+public class MongoTaskStore implements TaskStore {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    private final MongoCollection<Task> tasksDB;
+
+    @Autowired
+    public MongoTaskStore(MongoDatabase mongoDatabase) {
+        tasksDB = mongoDatabase.getCollection("tasks", Task.class);
+    }
+
+    @Override
+    public void insert(Task task) {
+        TaskArchiver.dateCompletion(task);
+        tasksDB.insertOne(task);
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Task> tasks) {
+        tasks.forEach(TaskArchiver::dateCompletion);
+        return MongoBatchWrites.insertAll(tasksDB, tasks);
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return tasksDB.find().into(new ArrayList<>());
+    }
+
+    @Override
+    public Stream<Task> streamAll() {
+        return stream(tasksDB.find().sort(Sorts.ascending("_id")).batchSize(STREAM_BATCH_SIZE).iterator());
+    }
+
+    @Override
+    public List<Task> findPage(ObjectId after, int limit, Collection<String> fields) {
+        Bson filter = after == null ? Filters.empty() : Filters.gt("_id", after);
+        return tasksDB.find(filter).projection(projection(fields)).sort(Sorts.ascending("_id")).limit(limit)
+                .into(new ArrayList<>());
+    }
+
+    @Override
+    public Task findByName(String name, Collection<String> fields) {
+        return tasksDB.find(Filters.eq("name", name)).projection(projection(fields)).first();
+    }
+
+    @Override
+    public Map<String, Task> findByNames(Collection<String> names) {
+        Map<String, Task> tasks = new HashMap<>();
+        for (Task task : tasksDB.find(Filters.in("name", names))) {
+            tasks.put(task.getName(), task);
+        }
+        return tasks;
+    }
+
+    @Override
+    public Set<ObjectId> findExistingIds(Collection<ObjectId> ids) {
+        Set<ObjectId> existing = new HashSet<>();
+        for (Task task : tasksDB.find(Filters.in("_id", ids)).projection(Projections.include("_id"))) {
+            existing.add(task.getId());
+        }
+        return existing;
+    }
+
+    @Override
+    public List<Task> findOpenForAssignment() {
+        return tasksDB.find(Filters.eq("done", false)).projection(TaskCodec.ASSIGNMENT_PROJECTION)
+                .into(new ArrayList<>());
+    }
+
+    @Override
+    public List<Task> findOpenByAssignee(ObjectId personId) {
+        return tasksDB.find(Filters.and(Filters.eq("done", false), Filters.eq("personAssignedId", personId)))
+                .into(new ArrayList<>());
+    }
+
+    @Override
+    public Map<ObjectId, Integer> countOpenByAssignee() {
+        Map<ObjectId, Integer> counts = new HashMap<>();
+        MongoCollection<Document> documents = tasksDB.withDocumentClass(Document.class);
+        for (Document group : documents.aggregate(List.of(
+                Aggregates.match(Filters.and(Filters.eq("done", false), Filters.ne("personAssignedId", null))),
+                Aggregates.group("$personAssignedId", Accumulators.sum("count", 1))))) {
+            counts.put(group.getObjectId("_id"), group.getInteger("count"));
+        }
+        return counts;
+    }
+
+    @Override
+    public Task deleteByName(String name) {
+        return tasksDB.findOneAndDelete(Filters.eq("name", name));
+    }
+
+    @Override
+    public void deleteByNames(Collection<String> names) {
+        tasksDB.deleteMany(Filters.in("name", names));
+    }
+
+    @Override
+    public Task updateChangedFields(Task current, Task requested) {
+        List<Bson> updates = new ArrayList<>();
+        List<Bson> guards = new ArrayList<>();
+        guards.add(Filters.eq("_id", current.getId()));
+        setIfChanged(updates, guards, "name", current.getName(), requested.getName());
+        setIfChanged(updates, guards, "description", current.getDescription(), requested.getDescription());
+        setIfChanged(updates, guards, "dateOfCreation", current.getDateOfCreation(), requested.getDateOfCreation());
+        setIfChanged(updates, guards, "done", current.getDone(), requested.getDone());
+        if (current.getDone() != requested.getDone()) {
+            updates.add(requested.getDone() ? Updates.set("dateOfCompletion", LocalDate.now())
+                    : Updates.unset("dateOfCompletion"));
+        }
+        setIfChanged(updates, guards, "personAssignedId", current.getPersonAssignedId(), requested.getPersonAssignedId());
+        setIfChanged(updates, guards, "partition", current.getPartition(), requested.getPartition());
+        if (updates.isEmpty()) {
+            return current;
+        }
+        if (requested.getVersion() != null) {
+            guards.add(Filters.eq("version", current.getVersion()));
+        }
+        updates.add(Updates.inc("version", 1L));
+        return tasksDB.findOneAndUpdate(Filters.and(guards), ChangeStreamWatcher.serverWrite(Updates.combine(updates)),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    }
+
+    @Override
+    public Map<Integer, String> updateAllByName(List<Task> tasks) {
+        List<WriteModel<Task>> writes = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            List<Bson> updates = new ArrayList<>(List.of(
+                    Updates.set("description", task.getDescription()),
+                    Updates.set("dateOfCreation", task.getDateOfCreation()),
+                    Updates.set("done", task.getDone()),
+                    Updates.set("partition", task.getPartition()),
+                    Updates.inc("version", 1L)
+            ));
+            if (task.getPersonAssignedId() != null) {
+                updates.add(Updates.set("personAssignedId", task.getPersonAssignedId()));
+            }
+            if (!task.getDone()) {
+                updates.add(Updates.unset("dateOfCompletion"));
+            }
+            writes.add(new UpdateOneModel<>(Filters.eq("name", task.getName()),
+                    ChangeStreamWatcher.serverWrite(Updates.combine(updates))));
+        }
+        return MongoBatchWrites.bulkWrite(tasksDB, writes);
+    }
+
+    @Override
+    public void setAssignee(String name, ObjectId personId) {
+        Bson update = personId == null ? Updates.unset("personAssignedId") : Updates.set("personAssignedId", personId);
+        tasksDB.updateOne(Filters.eq("name", name), Updates.combine(update, Updates.inc("version", 1L)));
+    }
+
+    @Override
+    public long setAssignees(List<Task> tasks, long fence) {
+        List<WriteModel<Task>> writes = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            writes.add(new UpdateOneModel<>(MongoAssignmentLease.fenced(Filters.eq("_id", task.getId()), fence),
+                    MongoAssignmentLease.fence(Updates.combine(Updates.set("personAssignedId", task.getPersonAssignedId()),
+                            Updates.inc("version", 1L)), fence)));
+        }
+        if (writes.isEmpty()) {
+            return 0;
+        }
+        return tasksDB.bulkWrite(writes, MongoPersonStore.UNORDERED).getMatchedCount();
+    }
+
+    @Override
+    public long dateUndatedCompletions(LocalDate date) {
+        return tasksDB.updateMany(Filters.and(Filters.eq("done", true), Filters.eq("dateOfCompletion", null)),
+                ChangeStreamWatcher.serverWrite(Updates.combine(Updates.set("dateOfCompletion", date),
+                        Updates.inc("version", 1L)))).getModifiedCount();
+    }
+
+    @Override
+    public List<Task> findCompletedBefore(LocalDate cutoff, int limit) {
+        return tasksDB.find(completedBefore(cutoff)).sort(Sorts.ascending("dateOfCompletion", "_id")).limit(limit)
+                .into(new ArrayList<>());
+    }
+
+    /**
+     * deleteMany only reports a count, so the candidates are read first; when fewer were deleted, the ones
+     * still stored are the ones kept.
+     */
+    @Override
+    public Set<ObjectId> deleteCompletedBefore(Collection<ObjectId> ids, LocalDate cutoff) {
+        Bson filter = Filters.and(Filters.in("_id", ids), completedBefore(cutoff));
+        Set<ObjectId> candidates = new HashSet<>();
+        for (Document task : tasksDB.find(filter, Document.class).projection(Projections.include("_id"))) {
+            candidates.add(task.getObjectId("_id"));
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        long deleted = tasksDB.deleteMany(Filters.and(Filters.in("_id", candidates), completedBefore(cutoff)))
+                .getDeletedCount();
+        if (deleted < candidates.size()) {
+            candidates.removeAll(findExistingIds(candidates));
+        }
+        return candidates;
+    }
+
+    private static Bson completedBefore(LocalDate cutoff) {
+        return Filters.and(Filters.eq("done", true), Filters.lt("dateOfCompletion", cutoff));
+    }
+
+    /**
+     * Adds a $set of the field when its value changes, guarded by a match on the value it changes from.
+     */
+    static void setIfChanged(List<Bson> updates, List<Bson> guards, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            updates.add(Updates.set(field, after));
+            guards.add(Filters.eq(field, before));
+        }
+    }
+
+    static Bson projection(Collection<String> fields) {
+        if (fields == null) {
+            return null;
+        }
+        // An empty inclusion would return whole documents
+        return fields.isEmpty() ? Projections.include("_id") : Projections.include(new ArrayList<>(fields));
+    }
+
+    static <T> Stream<T> stream(MongoCursor<T> cursor) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+}
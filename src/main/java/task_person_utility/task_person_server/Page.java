@@ -0,0 +1,52 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+public class Page<T> {
+    static final int DEFAULT_SIZE = 100;
+    static final int MAX_SIZE = 1000;
+
+    private final List<T> items;
+    private final String next;
+
+    public Page(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    static String checkCursor(String after) {
+        if (after != null && !ObjectId.isValid(after)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + after);
+        }
+        return after;
+    }
+
+    static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SIZE);
+        }
+        return limit;
+    }
+
+    // Getters
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", next='" + next + '\'' +
+                '}';
+    }
+}
@@ -10,6 +10,8 @@ public class Person {
     private String name;
     private boolean availability;
     private int tasksAssignedNumber;
+    private Long version;
+    private String partition;
 
     public Person(ObjectId id, String name, boolean availability, int tasksAssignedNumber) {
         this.id = id;
@@ -66,6 +68,22 @@ public class Person {
         this.tasksAssignedNumber = tasksAssignedNumber;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getPartition() {
+        return partition;
+    }
+
+    public void setPartition(String partition) {
+        this.partition = partition;
+    }
+
     @Override
     public String toString() {
         return "Person{" +
@@ -73,6 +91,8 @@ public class Person {
                 "name='" + name + '\'' +
                 ", availability=" + availability +
                 ", tasksAssignedNumber=" + tasksAssignedNumber +
+                ", version=" + version +
+                ", partition=" + partition +
                 '}';
     }
 }
@@ -0,0 +1,118 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.client.model.Projections;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+/**
+ * Reads and writes persons field by field instead of through the reflective POJO codec.
+ * Fields missing from the document keep their zero value, so the same codec decodes the
+ * {@link #ASSIGNMENT_PROJECTION} view used on the assignment read path.
+ * Inserted and replaced documents are stamped as server writes for the {@link ChangeStreamWatcher}.
+ */
+public class PersonCodec implements CollectibleCodec<Person> {
+
+    static final Bson ASSIGNMENT_PROJECTION = Projections.include("name", "availability", "tasksAssignedNumber", "partition");
+
+    @Override
+    public void encode(BsonWriter writer, Person person, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (person.getId() != null) {
+            writer.writeObjectId("_id", person.getId());
+        }
+        if (person.getName() != null) {
+            writer.writeString("name", person.getName());
+        }
+        writer.writeBoolean("availability", person.getAvailability());
+        writer.writeInt32("tasksAssignedNumber", person.getTasksAssignedNumber());
+        if (person.getVersion() != null) {
+            writer.writeInt64("version", person.getVersion());
+        }
+        if (person.getPartition() != null) {
+            writer.writeString("partition", person.getPartition());
+        }
+        if (encoderContext.isEncodingCollectibleDocument()) {
+            writer.writeObjectId(ChangeStreamWatcher.SERVER_WRITE_FIELD, new ObjectId());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Person decode(BsonReader reader, DecoderContext decoderContext) {
+        ObjectId id = null;
+        String name = null;
+        boolean availability = false;
+        int tasksAssignedNumber = 0;
+        Long version = null;
+        String partition = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (field) {
+                case "_id" -> id = reader.readObjectId();
+                case "name" -> name = reader.readString();
+                case "availability" -> availability = reader.readBoolean();
+                case "tasksAssignedNumber" -> tasksAssignedNumber = (int) readLong(reader);
+                case "version" -> version = readLong(reader);
+                case "partition" -> partition = reader.readString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        Person person = new Person(id, name, availability, tasksAssignedNumber);
+        person.setVersion(version);
+        person.setPartition(partition);
+        return person;
+    }
+
+    static long readLong(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> reader.readInt64();
+            case DOUBLE -> (long) reader.readDouble();
+            default -> {
+                reader.skipValue();
+                yield 0;
+            }
+        };
+    }
+
+    @Override
+    public Class<Person> getEncoderClass() {
+        return Person.class;
+    }
+
+    @Override
+    public Person generateIdIfAbsentFromDocument(Person person) {
+        if (person.getId() == null) {
+            person.setId(new ObjectId());
+        }
+        return person;
+    }
+
+    @Override
+    public boolean documentHasId(Person person) {
+        return person.getId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(Person person) {
+        if (person.getId() == null) {
+            throw new IllegalStateException("The person does not contain an _id");
+        }
+        return new BsonObjectId(person.getId());
+    }
+}
@@ -0,0 +1,89 @@
+package task_person_utility.task_person_server;
+
+/**
+ * Indexed binary min-heap over the task counts of a fixed set of person slots, kept in primitive arrays.
+ * Ties on the count go to the higher slot, which matches the last-minimum-wins rule of the linear scan
+ * it replaces.
+ */
+class PersonLoadHeap {
+
+    private final int[] counts;
+    private final int[] heap;
+    private final int[] positions;
+
+    PersonLoadHeap(int[] counts) {
+        int size = counts.length;
+        this.counts = counts;
+        heap = new int[size];
+        positions = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            heap[slot] = slot;
+            positions[slot] = slot;
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    boolean isEmpty() {
+        return heap.length == 0;
+    }
+
+    int minSlot() {
+        return heap[0];
+    }
+
+    int count(int slot) {
+        return counts[slot];
+    }
+
+    void increment(int slot) {
+        counts[slot]++;
+        siftDown(positions[slot]);
+    }
+
+    void decrement(int slot) {
+        counts[slot]--;
+        siftUp(positions[slot]);
+    }
+
+    private boolean less(int a, int b) {
+        return counts[a] < counts[b] || (counts[a] == counts[b] && a > b);
+    }
+
+    private void siftUp(int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(slot, heap[parent])) {
+                break;
+            }
+            place(index, heap[parent]);
+            index = parent;
+        }
+        place(index, slot);
+    }
+
+    private void siftDown(int index) {
+        int slot = heap[index];
+        int half = heap.length >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < heap.length && less(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!less(heap[child], slot)) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, slot);
+    }
+
+    private void place(int index, int slot) {
+        heap[index] = slot;
+        positions[slot] = index;
+    }
+}
@@ -1,34 +1,38 @@
 package task_person_utility.task_person_server;
 
 import com.mongodb.MongoException;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.result.InsertOneResult;
-import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @Service
 public class PersonServices {
 
-    private final MongoCollection<Person> personsDB;
+    private final PersonStore personStore;
     final AssignTasksServices assignTasksServices;
+    final IncrementalAssignTasksServices incrementalAssignTasksServices;
+    final AssignmentScheduler assignmentScheduler;
+    private final EntityCache<Person> personCache;
     private final Logger logger;
 
     @Autowired
-    private PersonRepository personRepository;
-
-    @Autowired
-    public PersonServices(MongoDatabase mongoDatabase, AssignTasksServices assignTasksServices) {
-        personsDB = mongoDatabase.getCollection("persons", Person.class);
+    public PersonServices(PersonStore personStore, AssignTasksServices assignTasksServices,
+                          IncrementalAssignTasksServices incrementalAssignTasksServices,
+                          AssignmentScheduler assignmentScheduler, EntityCache<Person> personCache) {
+        this.personStore = personStore;
         this.assignTasksServices = assignTasksServices;
+        this.incrementalAssignTasksServices = incrementalAssignTasksServices;
+        this.assignmentScheduler = assignmentScheduler;
+        this.personCache = personCache;
         logger = Logger.getLogger(PersonServices.class.getName());
     }
 
@@ -38,15 +42,18 @@ public class PersonServices {
 
     public Person createPerson(Person person) {
         try {
-            InsertOneResult result = personsDB.insertOne(person);
+            personStore.insert(person);
             if (getLogger().isLoggable(Level.INFO)) {
-                getLogger().log(Level.INFO, String.format("Inserted document with ID: %s", result.getInsertedId()));
+                getLogger().log(Level.INFO, String.format("Inserted document with ID: %s", person.getId()));
+            }
+            personCache.invalidate(person.getName());
+            if (!incrementalAssignTasksServices.personCreated(person)) {
+                assignmentScheduler.requestAssignment();
             }
-            assignTasksServices.assignTasks();
             return person;
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to insert person into MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to insert person into the store due to an error: ", me);
             }
             return null;
         }
@@ -54,9 +61,8 @@ public class PersonServices {
 
     public List<Person> getAllPersons() {
         List<Person> persons = new ArrayList<>();
-        try (MongoCursor<Person> cursor = personsDB.find().iterator()) {
-            while (cursor.hasNext()) {
-                Person currentPerson = cursor.next();
+        try {
+            for (Person currentPerson : personStore.findAll()) {
                 persons.add(currentPerson);
                 if (getLogger().isLoggable(Level.INFO)) {
                     getLogger().log(Level.INFO, String.format("%s is in DB%n", currentPerson.getName()));
@@ -64,20 +70,71 @@ public class PersonServices {
             }
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to find any persons in MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to find any persons in the store due to an error: ", me);
             }
             System.exit(1);
         }
-        assignTasksServices.assignTasks();
         return persons;
     }
 
+    public Page<Person> getPersonsPage(String after, int limit) {
+        return getPersonsPage(after, limit, null);
+    }
+
+    /**
+     * Page of persons holding only the given fields (and the id); null fields return whole documents.
+     */
+    public Page<Person> getPersonsPage(String after, int limit, Collection<String> fields) {
+        List<Person> persons;
+        try {
+            persons = personStore.findPage(after == null ? null : new ObjectId(after), limit, fields);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to find any persons in the store due to an error: ", me);
+            }
+            return null;
+        }
+        String next = persons.size() == limit ? persons.get(limit - 1).getId().toHexString() : null;
+        return new Page<>(persons, next);
+    }
+
+    /**
+     * All persons ordered by id, read lazily; the stream has to be closed.
+     */
+    public Stream<Person> streamPersons() {
+        return personStore.streamAll();
+    }
+
+    public Person findPerson(String name, Collection<String> fields) {
+        try {
+            return personStore.findByName(name, fields);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to find any persons in the store due to an error: ", me);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Loads the given persons in one query, keyed by id; ids without a person are left out.
+     */
+    public Map<ObjectId, Person> findPersonsById(Collection<ObjectId> ids, Collection<String> fields) {
+        try {
+            return personStore.findByIds(ids, fields);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to find any persons in the store due to an error: ", me);
+            }
+            return new HashMap<>();
+        }
+    }
+
     public Person getPerson(String name) {
 
-        Bson findId = Filters.eq("name", name);
         Person findIdPerson = null;
         try {
-            findIdPerson = personsDB.find(findId).first();
+            findIdPerson = personCache.get(name, key -> personStore.findByName(name, null));
             if (findIdPerson == null) {
                 if (getLogger().isLoggable(Level.INFO)) {
                     getLogger().log(Level.INFO, "Unable to find any person with name: {0}", name);
@@ -87,29 +144,37 @@ public class PersonServices {
             return findIdPerson;
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to find any persons in MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to find any persons in the store due to an error: ", me);
             }
             System.exit(1);
         }
-        assignTasksServices.assignTasks();
         return findIdPerson;
     }
 
     public Person updatePerson(String name, Person person) {
-        Person updatePerson = assignTasksServices.onlyUpdatePerson(name,person);
-        assignTasksServices.assignTasks();
-        return updatePerson;
+        VersionedUpdate<Person> update = assignTasksServices.updatePersonVersioned(name, person);
+        if (update == null) {
+            return null;
+        }
+        if (!incrementalAssignTasksServices.personUpdated(update.before(), update.after())) {
+            assignmentScheduler.requestAssignment();
+        }
+        return update.after();
     }
 
     public Person deletePerson(String name) {
-        Person deletedPerson = getPerson(name);
-        Bson filter = Filters.eq("name", name);
+        Person deletedPerson = null;
         try {
-            deletedPerson = personsDB.findOneAndDelete(filter);
-            assignTasksServices.assignTasks();
+            deletedPerson = personStore.deleteByName(name);
+            personCache.invalidate(name);
+            if (deletedPerson != null) {
+                if (!incrementalAssignTasksServices.personDeleted(deletedPerson)) {
+                    assignmentScheduler.requestAssignment();
+                }
+            }
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to delete person from MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to delete person from the store due to an error: ", me);
             }
         }
         return deletedPerson;
@@ -0,0 +1,69 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Storage of persons behind the services, with the same conventions as {@link TaskStore}.
+ */
+public interface PersonStore {
+
+    void insert(Person person);
+
+    Map<Integer, String> insertAll(List<Person> persons);
+
+    List<Person> findAll();
+
+    Stream<Person> streamAll();
+
+    List<Person> findPage(ObjectId after, int limit, Collection<String> fields);
+
+    Person findByName(String name, Collection<String> fields);
+
+    Map<ObjectId, Person> findByIds(Collection<ObjectId> ids, Collection<String> fields);
+
+    Set<String> findExistingNames(Collection<String> names);
+
+    /**
+     * All persons holding only the fields an assignment pass reads.
+     */
+    List<Person> findAllForAssignment();
+
+    Person deleteByName(String name);
+
+    void deleteByNames(Collection<String> names);
+
+    /**
+     * Field-level update as in {@link TaskStore#updateChangedFields}. The task count is maintained by the
+     * assignment and is never written from here.
+     */
+    Person updateChangedFields(Person current, Person requested);
+
+    Map<Integer, String> updateAvailabilityByName(List<Person> persons);
+
+    /**
+     * Adds delta to the task count, only if the person is available when availableOnly is set.
+     * Returns the updated person, or null when none matched.
+     */
+    Person incrementCount(ObjectId id, int delta, boolean availableOnly);
+
+    /**
+     * Gives one more task to the available person with the fewest, restricted to the given partition when
+     * partitioned. Returns the updated person, or null when nobody is available or the claim kept losing
+     * races with concurrent writes.
+     */
+    Person incrementLeastLoaded(boolean partitioned, String partition);
+
+    void incrementCounts(Map<ObjectId, Integer> deltas, long fence);
+
+    /**
+     * Sets the task count of each given person, but only while it still holds the observed count, so an
+     * increment that landed after the observation is not overwritten. Returns how many counts were set.
+     */
+    long setCountsIfUnchanged(Map<ObjectId, Integer> observed, Map<ObjectId, Integer> counts, long fence);
+}
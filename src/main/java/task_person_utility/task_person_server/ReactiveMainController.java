@@ -0,0 +1,326 @@
+package task_person_utility.task_person_server;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMainController {
+    private static final int IMPORT_PREFETCH = 16;
+
+    @Autowired
+    private ReactivePersonServices personServices;
+    @Autowired
+    private ReactiveTaskServices taskServices;
+    @Autowired
+    private BatchServices batchServices;
+    @Autowired
+    private BulkTransferServices bulkTransferServices;
+    @Autowired
+    private TaskArchiver taskArchiver;
+    @Autowired
+    private AssignmentScheduler assignmentScheduler;
+    @Autowired
+    private AssignmentFeed assignmentFeed;
+    @Autowired
+    private EntityCache<Person> personCache;
+    @Autowired
+    private EntityCache<Task> taskCache;
+
+    // Person API endpoints
+    @GetMapping("/persons")
+    public Flux<Person> getAllPersons() {
+        return personServices.getAllPersons();
+    }
+
+    @GetMapping("/persons/page")
+    public Mono<Page<Person>> getPersonsPage(@RequestParam(required = false) String after,
+                                             @RequestParam(defaultValue = "" + Page.DEFAULT_SIZE) int limit) {
+        return personServices.getPersonsPage(Page.checkCursor(after), Page.checkLimit(limit));
+    }
+
+    @GetMapping(value = "/persons/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Person> streamPersons() {
+        return personServices.getAllPersons();
+    }
+
+    @PostMapping("/persons/import")
+    public Mono<ImportReport> importPersons(@RequestParam(defaultValue = "ndjson") String format,
+                                            ServerHttpRequest request) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return importBody(request.getBody(), in -> bulkTransferServices.importPersons(in, bulkFormat))
+                .doOnNext(report -> assignmentScheduler.requestAssignment());
+    }
+
+    @GetMapping("/persons/export")
+    public ResponseEntity<Flux<DataBuffer>> exportPersons(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return toExport("persons", bulkFormat, out -> bulkTransferServices.exportPersons(out, bulkFormat));
+    }
+
+    @PostMapping("/persons")
+    public Mono<Person> createPerson(@RequestBody Person person) {
+        return personServices.createPerson(person);
+    }
+
+    @PostMapping("/persons/batch")
+    public Mono<List<BatchItemResult>> createPersons(@RequestBody List<Person> persons) {
+        return blocking(() -> batchServices.createPersons(persons));
+    }
+
+    @PutMapping("/persons/batch")
+    public Mono<List<BatchItemResult>> updatePersons(@RequestBody List<Person> persons) {
+        return blocking(() -> batchServices.updatePersons(persons));
+    }
+
+    @DeleteMapping("/persons/batch")
+    public Mono<List<BatchItemResult>> deletePersons(@RequestBody List<String> names) {
+        return blocking(() -> batchServices.deletePersons(names));
+    }
+
+    @PutMapping("/persons/{name}")
+    public Mono<Person> updatePerson(@PathVariable String name, @RequestBody Person person) {
+        return personServices.updatePerson(name, person);
+    }
+
+    @DeleteMapping("/persons/{name}")
+    public Mono<Person> deletePerson(@PathVariable String name) {
+        return personServices.deletePerson(name);
+    }
+
+    @PostMapping("/persons/reconcile")
+    public boolean reconcilePersons() {
+        return assignmentScheduler.requestReconcile();
+    }
+
+    // Task API endpoints
+    @GetMapping("/tasks")
+    public Flux<Task> getAllTasks() {
+        return taskServices.getAllTasks();
+    }
+
+    @GetMapping("/tasks/page")
+    public Mono<Page<Task>> getTasksPage(@RequestParam(required = false) String after,
+                                         @RequestParam(defaultValue = "" + Page.DEFAULT_SIZE) int limit) {
+        return taskServices.getTasksPage(Page.checkCursor(after), Page.checkLimit(limit));
+    }
+
+    @GetMapping("/tasks/archive")
+    public Mono<Page<Task>> getArchivedTasksPage(@RequestParam(required = false) String after,
+                                                 @RequestParam(defaultValue = "" + Page.DEFAULT_SIZE) int limit,
+                                                 @RequestParam(required = false) String person) {
+        String cursor = Page.checkCursor(after);
+        int checkedLimit = Page.checkLimit(limit);
+        return blocking(() -> taskArchiver.getArchivedTasksPage(cursor, checkedLimit, person));
+    }
+
+    @GetMapping(value = "/tasks/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Task> streamTasks() {
+        return taskServices.getAllTasks();
+    }
+
+    /**
+     * Task counts are recomputed once the whole file is in, then assigned in a single pass.
+     */
+    @PostMapping("/tasks/import")
+    public Mono<ImportReport> importTasks(@RequestParam(defaultValue = "ndjson") String format,
+                                          ServerHttpRequest request) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return importBody(request.getBody(), in -> bulkTransferServices.importTasks(in, bulkFormat))
+                .doOnNext(report -> assignmentScheduler.requestReconciledAssignment());
+    }
+
+    @GetMapping("/tasks/export")
+    public ResponseEntity<Flux<DataBuffer>> exportTasks(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkFormat bulkFormat = BulkFormat.of(format);
+        return toExport("tasks", bulkFormat, out -> bulkTransferServices.exportTasks(out, bulkFormat));
+    }
+
+    @PostMapping("/tasks")
+    public Mono<Task> createTask(@RequestBody Task task) {
+        return taskServices.createTask(task);
+    }
+
+    @PostMapping("/tasks/batch")
+    public Mono<List<BatchItemResult>> createTasks(@RequestBody List<Task> tasks) {
+        return blocking(() -> batchServices.createTasks(tasks));
+    }
+
+    @PutMapping("/tasks/batch")
+    public Mono<List<BatchItemResult>> updateTasks(@RequestBody List<Task> tasks) {
+        return blocking(() -> batchServices.updateTasks(tasks));
+    }
+
+    @DeleteMapping("/tasks/batch")
+    public Mono<List<BatchItemResult>> deleteTasks(@RequestBody List<String> names) {
+        return blocking(() -> batchServices.deleteTasks(names));
+    }
+
+    @PutMapping("/tasks/{name}")
+    public Mono<Task> updateTask(@PathVariable String name, @RequestBody Task task) {
+        return taskServices.updateTask(name, task);
+    }
+
+    @DeleteMapping("/tasks/{name}")
+    public Mono<Task> deleteTask(@PathVariable String name) {
+        return taskServices.deleteTask(name);
+    }
+
+    // Additional endpoints
+    @GetMapping("/tasks/assign")
+    public boolean assignTasks() {
+        return assignmentScheduler.requestAssignment(true);
+    }
+
+    @GetMapping("/tasks/assign/stats")
+    public Map<String, Long> getAssignmentStats() {
+        return assignmentScheduler.getStats();
+    }
+
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AssignmentEvent>> getAssignmentFeed(@RequestParam(required = false) Set<AssignmentEvent.Type> types,
+                                                                    @RequestParam(required = false) String person) {
+        return assignmentFeed.subscribe(types, person);
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Long>> getCacheStats() {
+        return Map.of("persons", personCache.getStats(), "tasks", taskCache.getStats());
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ProblemDetail handleVersionConflict(VersionConflictException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    /**
+     * Runs a call of the blocking services off the event loop.
+     */
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Hands the request body to a blocking import as an InputStream. The import pulls the body as it reads,
+     * so a slow import holds back the upload instead of buffering it.
+     */
+    private static Mono<ImportReport> importBody(Flux<DataBuffer> body, BulkImport bulkImport) {
+        return blocking(() -> {
+            try (InputStream in = new BodyInputStream(body.toStream(IMPORT_PREFETCH))) {
+                return bulkImport.readFrom(in);
+            }
+        });
+    }
+
+    /**
+     * The export writes on boundedElastic and blocks whenever the client has not asked for more yet.
+     */
+    private static ResponseEntity<Flux<DataBuffer>> toExport(String entities, BulkFormat format, BulkExport export) {
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                export.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DefaultDataBufferFactory.sharedInstance, Schedulers.boundedElastic()::schedule));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + entities + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    private interface BulkImport {
+        ImportReport readFrom(InputStream in) throws IOException;
+    }
+
+    private interface BulkExport {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Reads the buffers of a blocking stream one after the other, releasing each once read. Closing it
+     * cancels the rest of the body.
+     */
+    private static final class BodyInputStream extends InputStream {
+
+        private final Stream<DataBuffer> buffers;
+        private final Iterator<DataBuffer> bufferIterator;
+        private DataBuffer current;
+
+        BodyInputStream(Stream<DataBuffer> buffers) {
+            this.buffers = buffers;
+            this.bufferIterator = buffers.iterator();
+        }
+
+        @Override
+        public int read() {
+            return nextReadable() ? current.read() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            Objects.checkFromIndexSize(offset, length, bytes.length);
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextReadable()) {
+                return -1;
+            }
+            int count = Math.min(length, current.readableByteCount());
+            current.read(bytes, offset, count);
+            return count;
+        }
+
+        private boolean nextReadable() {
+            while (current == null || current.readableByteCount() == 0) {
+                releaseCurrent();
+                if (!bufferIterator.hasNext()) {
+                    return false;
+                }
+                current = bufferIterator.next();
+            }
+            return true;
+        }
+
+        private void releaseCurrent() {
+            if (current != null) {
+                DataBufferUtils.release(current);
+                current = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            releaseCurrent();
+            buffers.close();
+        }
+    }
+}
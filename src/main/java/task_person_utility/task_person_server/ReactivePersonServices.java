@@ -0,0 +1,70 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * {@link PersonServices} for the WebFlux mode, run on the boundedElastic scheduler like
+ * {@link ReactiveTaskServices}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonServices {
+
+    private final PersonServices personServices;
+    private final Logger logger;
+
+    @Autowired
+    public ReactivePersonServices(PersonServices personServices) {
+        this.personServices = personServices;
+        logger = Logger.getLogger(ReactivePersonServices.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    public Mono<Person> createPerson(Person person) {
+        return Mono.fromCallable(() -> personServices.createPerson(person)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Flux<Person> getAllPersons() {
+        return Flux.using(personServices::streamPersons, Flux::fromStream, Stream::close)
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(MongoException.class, me -> handleMongoException("Unable to find any persons in the store due to an error: ", me));
+    }
+
+    public Mono<Page<Person>> getPersonsPage(String after, int limit) {
+        return Mono.fromCallable(() -> personServices.getPersonsPage(after, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Person> getPerson(String name) {
+        return Mono.fromCallable(() -> personServices.getPerson(name)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Person> updatePerson(String name, Person person) {
+        return Mono.fromCallable(() -> personServices.updatePerson(name, person))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Person> deletePerson(String name) {
+        return Mono.fromCallable(() -> personServices.deletePerson(name)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private <T> Flux<T> handleMongoException(String message, MongoException me) {
+        if (getLogger().isLoggable(Level.SEVERE)) {
+            getLogger().log(Level.SEVERE, message, me);
+        }
+        return Flux.empty();
+    }
+}
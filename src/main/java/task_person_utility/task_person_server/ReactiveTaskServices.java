@@ -0,0 +1,73 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * {@link TaskServices} for the WebFlux mode. The stores block, so every call runs on the boundedElastic
+ * scheduler and the event loop only relays the result; writes take the same path as in servlet mode,
+ * through the cache, the versioned update and the incremental assignment.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskServices {
+
+    private final TaskServices taskServices;
+    private final Logger logger;
+
+    @Autowired
+    public ReactiveTaskServices(TaskServices taskServices) {
+        this.taskServices = taskServices;
+        this.logger = Logger.getLogger(ReactiveTaskServices.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    public Mono<Task> createTask(Task task) {
+        return Mono.fromCallable(() -> taskServices.createTask(task)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Reads the store's cursor only as fast as the subscriber requests.
+     */
+    public Flux<Task> getAllTasks() {
+        return Flux.using(taskServices::streamTasks, Flux::fromStream, Stream::close)
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(MongoException.class, me -> handleMongoException("Unable to find any tasks in the store due to an error: ", me));
+    }
+
+    public Mono<Page<Task>> getTasksPage(String after, int limit) {
+        return Mono.fromCallable(() -> taskServices.getTasksPage(after, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Task> getTask(String name) {
+        return Mono.fromCallable(() -> taskServices.getTask(name)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Task> updateTask(String name, Task task) {
+        return Mono.fromCallable(() -> taskServices.updateTask(name, task)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Task> deleteTask(String name) {
+        return Mono.fromCallable(() -> taskServices.deleteTask(name)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private <T> Flux<T> handleMongoException(String message, MongoException me) {
+        if (getLogger().isLoggable(Level.SEVERE)) {
+            getLogger().log(Level.SEVERE, message, me);
+        }
+        return Flux.empty();
+    }
+}
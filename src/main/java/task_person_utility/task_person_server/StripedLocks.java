@@ -0,0 +1,27 @@
+package task_person_utility.task_person_server;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared out by key hash. Writes to the same key serialize on one lock while writes to
+ * different keys mostly land on different locks and run in parallel, without a lock per entity.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    StripedLocks(int minStripes) {
+        int stripes = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = stripes - 1;
+    }
+
+    ReentrantLock lockFor(Object key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & mask];
+    }
+}
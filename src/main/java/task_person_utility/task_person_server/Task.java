@@ -1,7 +1,6 @@
 package task_person_utility.task_person_server;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "tasks")
@@ -12,24 +11,26 @@ public class Task {
     private String description;
     private java.time.LocalDate dateOfCreation;
     private boolean done;
-    @DBRef
-    private Person personAssigned;
+    private java.time.LocalDate dateOfCompletion;
+    private ObjectId personAssignedId;
+    private Long version;
+    private String partition;
 
-    public Task(ObjectId id, String name, String description, java.time.LocalDate dateOfCreation, boolean done, Person personAssigned) {
+    public Task(ObjectId id, String name, String description, java.time.LocalDate dateOfCreation, boolean done, ObjectId personAssignedId) {
         this.id = id;
         this.name = name;
         this.description = description;
         this.dateOfCreation = dateOfCreation;
         this.done = done;
-        this.personAssigned = personAssigned;
+        this.personAssignedId = personAssignedId;
     }
 
-    public Task(String name, String description, Person personAssigned) {
+    public Task(String name, String description, ObjectId personAssignedId) {
         this.name = name;
         this.description = description;
         this.dateOfCreation = java.time.LocalDate.now();
         this.done = false;
-        this.personAssigned = personAssigned;
+        this.personAssignedId = personAssignedId;
     }
 
     public Task(String name, String description) {
@@ -86,12 +87,36 @@ public class Task {
         this.done = done;
     }
 
-    public Person getPersonAssigned() {
-        return personAssigned;
+    public ObjectId getPersonAssignedId() {
+        return personAssignedId;
     }
 
-    public void setPersonAssigned(Person personAssigned) {
-        this.personAssigned = personAssigned;
+    public void setPersonAssignedId(ObjectId personAssignedId) {
+        this.personAssignedId = personAssignedId;
+    }
+
+    public java.time.LocalDate getDateOfCompletion() {
+        return dateOfCompletion;
+    }
+
+    public void setDateOfCompletion(java.time.LocalDate dateOfCompletion) {
+        this.dateOfCompletion = dateOfCompletion;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getPartition() {
+        return partition;
+    }
+
+    public void setPartition(String partition) {
+        this.partition = partition;
     }
 
     @Override
@@ -102,7 +127,10 @@ public class Task {
                 ", description='" + description + '\'' +
                 ", dateOfCreation=" + dateOfCreation +
                 ", done=" + done +
-                ", personAssigned=" + (personAssigned != null ? personAssigned.getName() : "none") +
+                ", dateOfCompletion=" + dateOfCompletion +
+                ", personAssignedId=" + (personAssignedId != null ? personAssignedId : "none") +
+                ", version=" + version +
+                ", partition=" + partition +
                 '}';
     }
 }
@@ -0,0 +1,35 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage of archived tasks, kept apart from the {@link TaskStore} so that only open and recently finished
+ * tasks are scanned by assignment and listing. Archived tasks keep their ids; names are not unique here,
+ * since a name is free for reuse once its task is archived. Failures are reported as MongoException like
+ * the other stores.
+ */
+public interface TaskArchive {
+
+    /**
+     * Stores the tasks by id, replacing an earlier copy of the same task, so an interrupted batch can
+     * simply be archived again. Throws unless every task was stored.
+     */
+    void archiveAll(List<Task> tasks);
+
+    void deleteByIds(Collection<ObjectId> ids);
+
+    /**
+     * Up to limit archived tasks with an id greater than after, or from the first one when after is null,
+     * ordered by id; only those last assigned to personId unless it is null.
+     */
+    List<Task> findPage(ObjectId after, int limit, ObjectId personId);
+
+    /**
+     * All archived tasks ordered by id. The stream holds a cursor and has to be closed.
+     */
+    Stream<Task> streamAll();
+}
@@ -0,0 +1,148 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves tasks completed more than archive.completed-age-days ago from the task store to the
+ * {@link TaskArchive}, in batches of archive.batch-size every archive.interval-ms (0 disables it), so the
+ * hot store only grows with the open and recently finished tasks. Done tasks without a completion date are
+ * dated first, so they are archived once the age has passed from the first pass that saw them.
+ * <p>
+ * Each batch is copied to the archive before it is deleted from the store, and the delete only takes the
+ * tasks that are still done and old enough; the copy of every task it did not delete, reopened or deleted
+ * by someone else in between, is dropped from the archive again.
+ * An interrupted pass leaves at worst a task in both places, which the next pass archives again.
+ * Assignment never reads done tasks, so passes run on their own thread.
+ */
+@Component
+public class TaskArchiver {
+
+    private final TaskStore taskStore;
+    private final TaskArchive taskArchive;
+    private final PersonStore personStore;
+    private final EntityCache<Task> taskCache;
+    private final int completedAgeDays;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+    private final Logger logger;
+
+    @Autowired
+    public TaskArchiver(TaskStore taskStore, TaskArchive taskArchive, PersonStore personStore,
+                        EntityCache<Task> taskCache,
+                        @Value("${archive.completed-age-days:30}") int completedAgeDays,
+                        @Value("${archive.batch-size:1000}") int batchSize,
+                        @Value("${archive.interval-ms:3600000}") long intervalMillis) {
+        this.taskStore = taskStore;
+        this.taskArchive = taskArchive;
+        this.personStore = personStore;
+        this.taskCache = taskCache;
+        this.completedAgeDays = Math.max(0, completedAgeDays);
+        this.batchSize = Math.max(1, batchSize);
+        logger = Logger.getLogger(TaskArchiver.class.getName());
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalMillis > 0) {
+            executor.scheduleWithFixedDelay(this::archive, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Dates a task about to be stored: a done task keeps its completion date or gets today's, an open one
+     * has none.
+     */
+    static void dateCompletion(Task task) {
+        if (!task.getDone()) {
+            task.setDateOfCompletion(null);
+        } else if (task.getDateOfCompletion() == null) {
+            task.setDateOfCompletion(LocalDate.now());
+        }
+    }
+
+    public long archive() {
+        LocalDate today = LocalDate.now();
+        LocalDate cutoff = today.minusDays(completedAgeDays);
+        long archived = 0;
+        try {
+            taskStore.dateUndatedCompletions(today);
+            List<Task> batch;
+            do {
+                batch = taskStore.findCompletedBefore(cutoff, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                taskArchive.archiveAll(batch);
+                List<ObjectId> ids = batch.stream().map(Task::getId).toList();
+                Set<ObjectId> deleted = taskStore.deleteCompletedBefore(ids, cutoff);
+                if (deleted.size() < batch.size()) {
+                    List<ObjectId> kept = ids.stream().filter(id -> !deleted.contains(id)).toList();
+                    taskArchive.deleteByIds(kept);
+                }
+                batch.forEach(task -> taskCache.invalidate(task.getName()));
+                archived += deleted.size();
+                if (deleted.isEmpty()) {
+                    break;
+                }
+            } while (batch.size() == batchSize);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to archive completed tasks due to an error: ", me);
+            }
+        }
+        if (archived > 0 && getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Archived %d tasks completed before %s", archived, cutoff));
+        }
+        return archived;
+    }
+
+    /**
+     * Page of archived tasks, only those last assigned to the named person when one is given; an unknown
+     * person has no history.
+     */
+    public Page<Task> getArchivedTasksPage(String after, int limit, String personName) {
+        List<Task> tasks;
+        try {
+            ObjectId personId = null;
+            if (personName != null) {
+                Person person = personStore.findByName(personName, List.of());
+                if (person == null) {
+                    return new Page<>(List.of(), null);
+                }
+                personId = person.getId();
+            }
+            tasks = taskArchive.findPage(after == null ? null : new ObjectId(after), limit, personId);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to find any archived tasks due to an error: ", me);
+            }
+            return null;
+        }
+        String next = tasks.size() == limit ? tasks.get(limit - 1).getId().toHexString() : null;
+        return new Page<>(tasks, next);
+    }
+}
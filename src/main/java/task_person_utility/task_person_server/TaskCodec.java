@@ -0,0 +1,133 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.client.model.Projections;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Reads and writes tasks field by field instead of through the reflective POJO codec.
+ * Dates keep the POJO codec's layout (UTC midnight as a BSON date), so existing documents decode unchanged.
+ * Fields missing from the document stay null, so the same codec decodes the {@link #ASSIGNMENT_PROJECTION}
+ * view used on the assignment read path without building descriptions or dates.
+ * Inserted and replaced documents are stamped as server writes for the {@link ChangeStreamWatcher}.
+ */
+public class TaskCodec implements CollectibleCodec<Task> {
+
+    static final Bson ASSIGNMENT_PROJECTION = Projections.include("name", "personAssignedId", "partition");
+
+    @Override
+    public void encode(BsonWriter writer, Task task, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (task.getId() != null) {
+            writer.writeObjectId("_id", task.getId());
+        }
+        if (task.getName() != null) {
+            writer.writeString("name", task.getName());
+        }
+        if (task.getDescription() != null) {
+            writer.writeString("description", task.getDescription());
+        }
+        if (task.getDateOfCreation() != null) {
+            writer.writeDateTime("dateOfCreation",
+                    task.getDateOfCreation().atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+        }
+        writer.writeBoolean("done", task.getDone());
+        if (task.getDateOfCompletion() != null) {
+            writer.writeDateTime("dateOfCompletion",
+                    task.getDateOfCompletion().atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli());
+        }
+        if (task.getPersonAssignedId() != null) {
+            writer.writeObjectId("personAssignedId", task.getPersonAssignedId());
+        }
+        if (task.getVersion() != null) {
+            writer.writeInt64("version", task.getVersion());
+        }
+        if (task.getPartition() != null) {
+            writer.writeString("partition", task.getPartition());
+        }
+        if (encoderContext.isEncodingCollectibleDocument()) {
+            writer.writeObjectId(ChangeStreamWatcher.SERVER_WRITE_FIELD, new ObjectId());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Task decode(BsonReader reader, DecoderContext decoderContext) {
+        ObjectId id = null;
+        String name = null;
+        String description = null;
+        LocalDate dateOfCreation = null;
+        boolean done = false;
+        LocalDate dateOfCompletion = null;
+        ObjectId personAssignedId = null;
+        Long version = null;
+        String partition = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String field = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (field) {
+                case "_id" -> id = reader.readObjectId();
+                case "name" -> name = reader.readString();
+                case "description" -> description = reader.readString();
+                case "dateOfCreation" -> dateOfCreation =
+                        Instant.ofEpochMilli(reader.readDateTime()).atZone(ZoneOffset.UTC).toLocalDate();
+                case "done" -> done = reader.readBoolean();
+                case "dateOfCompletion" -> dateOfCompletion =
+                        Instant.ofEpochMilli(reader.readDateTime()).atZone(ZoneOffset.UTC).toLocalDate();
+                case "personAssignedId" -> personAssignedId = reader.readObjectId();
+                case "version" -> version = PersonCodec.readLong(reader);
+                case "partition" -> partition = reader.readString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        Task task = new Task(id, name, description, dateOfCreation, done, personAssignedId);
+        task.setDateOfCompletion(dateOfCompletion);
+        task.setVersion(version);
+        task.setPartition(partition);
+        return task;
+    }
+
+    @Override
+    public Class<Task> getEncoderClass() {
+        return Task.class;
+    }
+
+    @Override
+    public Task generateIdIfAbsentFromDocument(Task task) {
+        if (task.getId() == null) {
+            task.setId(new ObjectId());
+        }
+        return task;
+    }
+
+    @Override
+    public boolean documentHasId(Task task) {
+        return task.getId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(Task task) {
+        if (task.getId() == null) {
+            throw new IllegalStateException("The task does not contain an _id");
+        }
+        return new BsonObjectId(task.getId());
+    }
+}
@@ -0,0 +1,123 @@
+package task_person_utility.task_person_server;
+
+import java.util.Arrays;
+
+/**
+ * Pure in-memory distribution step of an assignment run; all moves are recorded on the snapshot.
+ * The least loaded available person is taken from a {@link PersonLoadHeap}, so each placement costs
+ * O(log persons) instead of a scan over all available persons.
+ */
+class TaskDistributor {
+
+    private final AssignmentSnapshot snapshot;
+
+    TaskDistributor(AssignmentSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    void distribute(boolean forced) {
+        int availableCount = snapshot.getAvailableCount();
+        int taskCount = snapshot.getTaskCount();
+        if (availableCount > 0 && taskCount > 0) {
+            double numberOfTasksPerAvailablePerson = Math.floor((taskCount+0.0) / (availableCount+0.0));
+            PersonLoadHeap loads = createLoads();
+
+            distributeTasks(loads, getTasksForDistribution(forced), numberOfTasksPerAvailablePerson, false);
+            distributeTasks(loads, getTasksOfNotAvailablePersons(), numberOfTasksPerAvailablePerson, true);
+        }
+    }
+
+    /**
+     * Indexes of the tasks to place: every task when forced, otherwise the unassigned ones plus one task of
+     * the most loaded person.
+     */
+    int[] getTasksForDistribution(boolean forced) {
+        int[] tasksForDist = new int[snapshot.getTaskCount()];
+        int size = 0;
+        int maxPersonTask = -1;
+        int maxTasksCount = 0;
+
+        for (int task = 0; task < snapshot.getTaskCount(); task++) {
+            int slot = snapshot.getPersonSlot(task);
+            if (forced || slot == AssignmentSnapshot.NO_SLOT) {
+                tasksForDist[size++] = task;
+            } else if (maxTasksCount < snapshot.getCount(slot)) {
+                maxTasksCount = snapshot.getCount(slot);
+                maxPersonTask = task;
+            }
+        }
+        if (0 < maxTasksCount) {
+            tasksForDist[size++] = maxPersonTask;
+        }
+        return Arrays.copyOf(tasksForDist, size);
+    }
+
+    /**
+     * Indexes of the tasks still held by not available persons, grouped by person in slot order.
+     */
+    int[] getTasksOfNotAvailablePersons() {
+        int availableCount = snapshot.getAvailableCount();
+        int[] offsets = new int[snapshot.getNotAvailablePersons().size() + 1];
+        for (int task = 0; task < snapshot.getTaskCount(); task++) {
+            int slot = snapshot.getPersonSlot(task);
+            if (slot >= availableCount) {
+                offsets[slot - availableCount + 1]++;
+            }
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        int[] tasks = new int[offsets[offsets.length - 1]];
+        for (int task = 0; task < snapshot.getTaskCount(); task++) {
+            int slot = snapshot.getPersonSlot(task);
+            if (slot >= availableCount) {
+                tasks[offsets[slot - availableCount]++] = task;
+            }
+        }
+        return tasks;
+    }
+
+    void distributeTasks(int[] tasks, double numberOfTasksPerAvailablePerson, boolean forced) {
+        distributeTasks(createLoads(), tasks, numberOfTasksPerAvailablePerson, forced);
+    }
+
+    private PersonLoadHeap createLoads() {
+        int[] counts = new int[snapshot.getAvailableCount()];
+        for (int slot = 0; slot < counts.length; slot++) {
+            counts[slot] = snapshot.getCount(slot);
+        }
+        return new PersonLoadHeap(counts);
+    }
+
+    private void distributeTasks(PersonLoadHeap loads, int[] tasks, double numberOfTasksPerAvailablePerson,
+                                 boolean forced) {
+        for (int task : tasks) {
+            findAPersonToAssignATaskTo(loads, numberOfTasksPerAvailablePerson, task, forced);
+        }
+    }
+
+    /**
+     * Moves the task to the least loaded available person. Unless forced, a person already holding
+     * the per-person share of tasks is not eligible, so the task stays where it is.
+     */
+    private boolean findAPersonToAssignATaskTo(PersonLoadHeap loads, double numberOfTasksPerAvailablePerson,
+                                               int task, boolean forced) {
+        if (loads.isEmpty()) {
+            return false;
+        }
+        int minSlot = loads.minSlot();
+        if (!forced && loads.count(minSlot) >= numberOfTasksPerAvailablePerson) {
+            return false;
+        }
+        int oldSlot = snapshot.getPersonSlot(task);
+        if (oldSlot == minSlot) {
+            return true;
+        }
+        snapshot.moveTask(task, minSlot);
+        loads.increment(minSlot);
+        if (oldSlot != AssignmentSnapshot.NO_SLOT && snapshot.isAvailable(oldSlot)) {
+            loads.decrement(oldSlot);
+        }
+        return true;
+    }
+}
@@ -1,35 +1,39 @@
 package task_person_utility.task_person_server;
 
 import com.mongodb.MongoException;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoCursor;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.result.DeleteResult;
-import com.mongodb.client.result.InsertOneResult;
-import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @Service
 public class TaskServices {
 
-    private final MongoCollection<Task> tasksDB;
+    private final TaskStore taskStore;
     final AssignTasksServices assignTasksServices;
+    final IncrementalAssignTasksServices incrementalAssignTasksServices;
+    final AssignmentScheduler assignmentScheduler;
+    private final EntityCache<Task> taskCache;
+    private final AssignmentFeed assignmentFeed;
     private final Logger logger;
 
     @Autowired
-    private TaskRepository taskRepository;
-
-    @Autowired
-    public TaskServices(MongoDatabase mongoDatabase, AssignTasksServices assignTasksServices) {
-        this.tasksDB = mongoDatabase.getCollection("tasks", Task.class);
+    public TaskServices(TaskStore taskStore, AssignTasksServices assignTasksServices,
+                        IncrementalAssignTasksServices incrementalAssignTasksServices,
+                        AssignmentScheduler assignmentScheduler, EntityCache<Task> taskCache,
+                        AssignmentFeed assignmentFeed) {
+        this.taskStore = taskStore;
         this.assignTasksServices = assignTasksServices;
+        this.incrementalAssignTasksServices = incrementalAssignTasksServices;
+        this.assignmentScheduler = assignmentScheduler;
+        this.taskCache = taskCache;
+        this.assignmentFeed = assignmentFeed;
         this.logger = Logger.getLogger(TaskServices.class.getName());
     }
 
@@ -39,15 +43,19 @@ public class TaskServices {
 
     public Task createTask(Task task) {
         try {
-            InsertOneResult result = tasksDB.insertOne(task);
+            taskStore.insert(task);
             if (getLogger().isLoggable(Level.INFO)) {
-                getLogger().log(Level.INFO, String.format("Inserted document with id: %s", result.getInsertedId()));
+                getLogger().log(Level.INFO, String.format("Inserted document with id: %s", task.getId()));
+            }
+            assignmentFeed.taskCreated(task);
+            taskCache.invalidate(task.getName());
+            if (!incrementalAssignTasksServices.taskCreated(task)) {
+                assignmentScheduler.requestAssignment();
             }
-            assignTasksServices.assignTasks();
             return task;
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to insert Task into MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to insert Task into the store due to an error: ", me);
             }
             return null;
         }
@@ -55,9 +63,8 @@ public class TaskServices {
 
     public List<Task> getAllTasks() {
         List<Task> tasks = new ArrayList<>();
-        try (MongoCursor<Task> cursor = tasksDB.find().iterator()) {
-            while (cursor.hasNext()) {
-                Task currentTask = cursor.next();
+        try {
+            for (Task currentTask : taskStore.findAll()) {
                 tasks.add(currentTask);
                 if (getLogger().isLoggable(Level.INFO)) {
                     getLogger().log(Level.INFO, String.format("%s is in DB%n", currentTask.getName()));
@@ -65,44 +72,89 @@ public class TaskServices {
             }
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to find any tasks in MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to find any tasks in the store due to an error: ", me);
             }
         }
-        assignTasksServices.assignTasks();
         return tasks;
     }
 
+    public Page<Task> getTasksPage(String after, int limit) {
+        return getTasksPage(after, limit, null);
+    }
+
+    /**
+     * Page of tasks holding only the given fields (and the id); null fields return whole documents.
+     */
+    public Page<Task> getTasksPage(String after, int limit, Collection<String> fields) {
+        List<Task> tasks;
+        try {
+            tasks = taskStore.findPage(after == null ? null : new ObjectId(after), limit, fields);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to find any tasks in the store due to an error: ", me);
+            }
+            return null;
+        }
+        String next = tasks.size() == limit ? tasks.get(limit - 1).getId().toHexString() : null;
+        return new Page<>(tasks, next);
+    }
+
+    /**
+     * All tasks ordered by id, read lazily; the stream has to be closed.
+     */
+    public Stream<Task> streamTasks() {
+        return taskStore.streamAll();
+    }
+
+    public Task findTask(String name, Collection<String> fields) {
+        try {
+            return taskStore.findByName(name, fields);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to find any tasks in the store due to an error: ", me);
+            }
+            return null;
+        }
+    }
+
     public Task getTask(String name) {
-        Bson filter = Filters.eq("name", name);
         try {
-            Task task = tasksDB.find(filter).first();
+            Task task = taskCache.get(name, key -> taskStore.findByName(name, null));
             if (task == null && getLogger().isLoggable(Level.INFO)) {
                 getLogger().log(Level.INFO, "Unable to find any Task with name: {0}", name);
             }
-            assignTasksServices.assignTasks();
             return task;
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to find any tasks in MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to find any tasks in the store due to an error: ", me);
             }
             return null;
         }
     }
 
     public Task updateTask(String name, Task task) {
-        Task updateTask = assignTasksServices.onlyUpdateTask(name,task);
-        assignTasksServices.assignTasks();
-        return updateTask;
+        VersionedUpdate<Task> update = assignTasksServices.updateTaskVersioned(name, task);
+        if (update == null) {
+            return null;
+        }
+        if (!incrementalAssignTasksServices.taskUpdated(update.before(), update.after())) {
+            assignmentScheduler.requestAssignment();
+        }
+        return update.before();
     }
 
     public Task deleteTask(String name) {
-        Task deletedTask = getTask(name);
-        Bson filter = Filters.eq("name", name);
         try {
-            DeleteResult result = tasksDB.deleteOne(filter);
-            if (result.getDeletedCount() > 0 && getLogger().isLoggable(Level.INFO)) {
-                getLogger().log(Level.INFO, String.format("Deleted document with name: %s", name));
-                assignTasksServices.assignTasks();
+            Task deletedTask = taskStore.deleteByName(name);
+            taskCache.invalidate(name);
+            if (deletedTask != null) {
+                if (getLogger().isLoggable(Level.INFO)) {
+                    getLogger().log(Level.INFO, String.format("Deleted document with name: %s", name));
+                }
+                assignmentFeed.taskDeleted(deletedTask);
+                if (!incrementalAssignTasksServices.taskDeleted(deletedTask)) {
+                    assignmentScheduler.requestAssignment();
+                }
                 return deletedTask;
             } else {
                 if (getLogger().isLoggable(Level.INFO)) {
@@ -112,7 +164,7 @@ public class TaskServices {
             }
         } catch (MongoException me) {
             if (getLogger().isLoggable(Level.SEVERE)) {
-                getLogger().log(Level.SEVERE, "Unable to delete Task in MongoDB due to an error: ", me);
+                getLogger().log(Level.SEVERE, "Unable to delete Task in the store due to an error: ", me);
             }
             return null;
         }
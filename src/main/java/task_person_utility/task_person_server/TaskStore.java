@@ -0,0 +1,107 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Storage of tasks behind the services, selected with storage.engine. Names are unique, a missing id is
+ * generated on insert and every write increments the version. Failures are reported as MongoException with
+ * the server's error codes whichever engine is configured, so callers handle both engines alike.
+ * <p>
+ * The completion date is kept by the store: inserts date a done task that has none, a task marked done
+ * through {@link #updateChangedFields} is dated today and a reopened one loses its date.
+ * <p>
+ * Field lists name the stored fields to load; null loads whole tasks. Fences are lease tokens as handed
+ * out by {@link AssignmentLease}, or {@link AssignmentLease#NO_LEASE} for an unfenced write.
+ */
+public interface TaskStore {
+
+    void insert(Task task);
+
+    /**
+     * Inserts every task it can; returns the error of each failed one by its index.
+     */
+    Map<Integer, String> insertAll(List<Task> tasks);
+
+    List<Task> findAll();
+
+    /**
+     * All tasks ordered by id. The stream holds a cursor and has to be closed.
+     */
+    Stream<Task> streamAll();
+
+    /**
+     * Up to limit tasks with an id greater than after, or from the first one when after is null, ordered by id.
+     */
+    List<Task> findPage(ObjectId after, int limit, Collection<String> fields);
+
+    Task findByName(String name, Collection<String> fields);
+
+    Map<String, Task> findByNames(Collection<String> names);
+
+    Set<ObjectId> findExistingIds(Collection<ObjectId> ids);
+
+    /**
+     * Open tasks holding only the fields an assignment pass reads.
+     */
+    List<Task> findOpenForAssignment();
+
+    /**
+     * Open tasks of the given person, or the unassigned ones when personId is null.
+     */
+    List<Task> findOpenByAssignee(ObjectId personId);
+
+    Map<ObjectId, Integer> countOpenByAssignee();
+
+    Task deleteByName(String name);
+
+    void deleteByNames(Collection<String> names);
+
+    /**
+     * Writes only the fields in which requested differs from current, and only while the stored task still
+     * holds current's values in those fields, so concurrent changes to other fields survive. When requested
+     * carries a version the stored version has to be current's as well. Returns the updated task, current
+     * itself when nothing differs, or null when the task changed underneath or disappeared.
+     */
+    Task updateChangedFields(Task current, Task requested);
+
+    /**
+     * Overwrites the editable fields, except the name, of the tasks with the given names; returns the error
+     * of each failed one by its index. A done task keeps the completion date it had, if any. The assignee
+     * belongs to the assignment: it is only overwritten by a task that names one, a null keeps the stored one.
+     */
+    Map<Integer, String> updateAllByName(List<Task> tasks);
+
+    void setAssignee(String name, ObjectId personId);
+
+    /**
+     * Writes the current assignee of every given task in one batch. Returns how many tasks were written;
+     * the others were deleted or fenced off by a newer assignment pass meanwhile.
+     */
+    long setAssignees(List<Task> tasks, long fence);
+
+    /**
+     * Dates the done tasks that have no completion date, such as ones written before the date was kept or
+     * marked done through {@link #updateAllByName}; returns how many were dated.
+     */
+    long dateUndatedCompletions(LocalDate date);
+
+    /**
+     * Up to limit done tasks completed before cutoff, the oldest completions first and by id among equal
+     * dates.
+     */
+    List<Task> findCompletedBefore(LocalDate cutoff, int limit);
+
+    /**
+     * Deletes those of the given tasks that are still done and completed before cutoff; returns the ids of
+     * the deleted ones. A task another writer deletes at the same moment may be among them, never a task
+     * that is still stored.
+     */
+    Set<ObjectId> deleteCompletedBefore(Collection<ObjectId> ids, LocalDate cutoff);
+}
@@ -0,0 +1,120 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Recomputes every person's open-task count with one grouped count of the store (a server-side $group on
+ * MongoDB) and repairs drifting tasksAssignedNumber values with a single batch write. Each repair only
+ * applies while the person still holds the count read here; a person whose count moved in between is left
+ * to the next run rather than losing that increment.
+ */
+@Service
+public class TasksCountReconciler {
+
+    private final TaskStore taskStore;
+    private final PersonStore personStore;
+    private final EntityCache<Person> personCache;
+    private final AssignmentLease assignmentLease;
+    private final AssignmentFeed assignmentFeed;
+    private final Logger logger;
+
+    @Autowired
+    public TasksCountReconciler(TaskStore taskStore, PersonStore personStore, EntityCache<Person> personCache,
+                                AssignmentLease assignmentLease, AssignmentFeed assignmentFeed) {
+        this.taskStore = taskStore;
+        this.personStore = personStore;
+        this.personCache = personCache;
+        this.assignmentLease = assignmentLease;
+        this.assignmentFeed = assignmentFeed;
+        logger = Logger.getLogger(TasksCountReconciler.class.getName());
+    }
+
+    private Logger getLogger() {
+        return logger;
+    }
+
+    public int reconcile() {
+        long token = assignmentLease.tryAcquire();
+        if (token == AssignmentLease.NO_LEASE) {
+            if (getLogger().isLoggable(Level.INFO)) {
+                getLogger().log(Level.INFO, "Skipping reconciliation, another instance holds the lease");
+            }
+            return 0;
+        }
+        try {
+            return reconcile(token);
+        } finally {
+            assignmentLease.release(token);
+        }
+    }
+
+    private int reconcile(long token) {
+        Map<ObjectId, Integer> observedCounts = new HashMap<>();
+        Map<ObjectId, Integer> correctedCounts = new HashMap<>();
+        List<Person> driftedPersons = new ArrayList<>();
+        long setCounts;
+        try {
+            // The counts are read first: an increment landing before the grouped count then fails the
+            // guard below instead of being overwritten with a total that already includes its task
+            List<Person> persons = personStore.findAllForAssignment();
+            Map<ObjectId, Integer> actualCounts = taskStore.countOpenByAssignee();
+            for (Person person : persons) {
+                int actualCount = actualCounts.getOrDefault(person.getId(), 0);
+                if (person.getTasksAssignedNumber() != actualCount) {
+                    observedCounts.put(person.getId(), person.getTasksAssignedNumber());
+                    correctedCounts.put(person.getId(), actualCount);
+                    driftedPersons.add(person);
+                }
+            }
+            if (correctedCounts.isEmpty()) {
+                return 0;
+            }
+            if (!assignmentLease.isHeld(token)) {
+                if (getLogger().isLoggable(Level.WARNING)) {
+                    getLogger().log(Level.WARNING, "Dropping reconciliation results, the lease expired during the run");
+                }
+                return 0;
+            }
+            setCounts = personStore.setCountsIfUnchanged(observedCounts, correctedCounts, token);
+            driftedPersons.forEach(person -> personCache.invalidate(person.getName()));
+            publishCounts(driftedPersons, correctedCounts, setCounts);
+        } catch (MongoException me) {
+            if (getLogger().isLoggable(Level.SEVERE)) {
+                getLogger().log(Level.SEVERE, "Unable to reconcile task counts due to an error: ", me);
+            }
+            return 0;
+        }
+        if (getLogger().isLoggable(Level.INFO)) {
+            getLogger().log(Level.INFO, String.format("Reconciled task counts of %d persons, %d changed meanwhile",
+                    setCounts, correctedCounts.size() - setCounts));
+        }
+        return (int) setCounts;
+    }
+
+    /**
+     * Publishes the corrected counts when every repair applied; otherwise it cannot tell which did, so it
+     * publishes the counts stored now.
+     */
+    private void publishCounts(List<Person> driftedPersons, Map<ObjectId, Integer> correctedCounts, long setCounts) {
+        if (setCounts == correctedCounts.size()) {
+            for (Person person : driftedPersons) {
+                assignmentFeed.personCountChanged(person.getId(), person.getName(), correctedCounts.get(person.getId()));
+            }
+            return;
+        }
+        for (Person person : personStore.findByIds(correctedCounts.keySet(), List.of("name", "tasksAssignedNumber"))
+                .values()) {
+            assignmentFeed.personCountChanged(person.getId(), person.getName(), person.getTasksAssignedNumber());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package task_person_utility.task_person_server;
+
+/**
+ * A versioned update that could not be applied: the caller sent a version other than the stored one, or the
+ * document kept changing until the update gave up. The controllers answer it with 409.
+ */
+class VersionConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    VersionConflictException(String message) {
+        super(message);
+    }
+}
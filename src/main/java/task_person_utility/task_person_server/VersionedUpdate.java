@@ -0,0 +1,7 @@
+package task_person_utility.task_person_server;
+
+/**
+ * The document a compare-and-set update replaced and the document it produced.
+ */
+record VersionedUpdate<T>(T before, T after) {
+}
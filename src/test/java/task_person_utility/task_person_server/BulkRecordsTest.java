@@ -0,0 +1,84 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkRecordsTest {
+
+    @Test
+    void roundTripsATaskThroughARecord() {
+        Task task = new Task(new ObjectId(), "t", "d", LocalDate.of(2024, 4, 1), true, new ObjectId());
+        task.setDateOfCompletion(LocalDate.of(2024, 4, 2));
+        task.setPartition("eu");
+
+        Task parsed = BulkRecords.toTask(BulkRecords.fromTask(task));
+
+        assertNull(parsed.getId());
+        assertEquals("t", parsed.getName());
+        assertEquals("d", parsed.getDescription());
+        assertEquals(LocalDate.of(2024, 4, 1), parsed.getDateOfCreation());
+        assertTrue(parsed.getDone());
+        assertEquals(LocalDate.of(2024, 4, 2), parsed.getDateOfCompletion());
+        assertEquals(task.getPersonAssignedId(), parsed.getPersonAssignedId());
+        assertEquals("eu", parsed.getPartition());
+    }
+
+    @Test
+    void readsCsvStringsAndTreatsEmptyAsMissing() {
+        Map<String, String> record = new HashMap<>();
+        record.put("name", "t");
+        record.put("done", "TRUE");
+        record.put("personAssignedId", "");
+        record.put("partition", "");
+
+        Task parsed = BulkRecords.toTask(record);
+
+        assertTrue(parsed.getDone());
+        assertNull(parsed.getPersonAssignedId());
+        assertNull(parsed.getPartition());
+    }
+
+    @Test
+    void rejectsBadValues() {
+        assertThrows(IllegalArgumentException.class, () -> BulkRecords.toTask(Map.of("done", "false")));
+        assertThrows(IllegalArgumentException.class, () -> BulkRecords.toTask(Map.of("name", "t", "done", "yes")));
+        assertThrows(IllegalArgumentException.class,
+                () -> BulkRecords.toTask(Map.of("name", "t", "personAssignedId", "not-an-id")));
+        assertThrows(DateTimeException.class,
+                () -> BulkRecords.toTask(Map.of("name", "t", "dateOfCreation", "2024-13-01")));
+    }
+
+    @Test
+    void leavesThePersonCountToTheRecount() {
+        Person parsed = BulkRecords.toPerson(Map.of("name", "p", "tasksAssignedNumber", 7, "availability", false));
+
+        assertEquals("p", parsed.getName());
+        assertFalse(parsed.getAvailability());
+        assertEquals(0, parsed.getTasksAssignedNumber());
+    }
+
+    @Test
+    void defaultsAPersonToAvailable() {
+        assertTrue(BulkRecords.toPerson(Map.of("name", "p")).getAvailability());
+    }
+
+    @Test
+    void laysOutRowsInColumnOrder() {
+        Person person = new Person(null, "p", true, 3);
+
+        assertEquals(Arrays.asList("p", "true", "3", null),
+                BulkRecords.toRow(BulkRecords.fromPerson(person), BulkRecords.PERSON_COLUMNS));
+    }
+}
@@ -0,0 +1,80 @@
+package task_person_utility.task_person_server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkTransferServicesTest {
+
+    private static final int MAX_RECORD_LENGTH = 64;
+
+    private final InMemoryTaskStore taskStore = new InMemoryTaskStore(4);
+    private final InMemoryPersonStore personStore = new InMemoryPersonStore(4);
+    private final BulkTransferServices services = new BulkTransferServices(taskStore, personStore,
+            new EntityCache<>(false, 0, Duration.ZERO), new EntityCache<>(false, 0, Duration.ZERO),
+            new AssignmentFeed(new SimpleMeterRegistry(), 16, 1000), new ObjectMapper(), 2, 2, 0, MAX_RECORD_LENGTH);
+
+    @AfterEach
+    void shutdown() {
+        services.shutdown();
+    }
+
+    @Test
+    void rejectsMalformedCsvRecordsAndImportsTheRest() throws IOException {
+        String csv = "name,done\n"
+                + "a,false\n"
+                + "b,maybe\n"
+                + "c," + "x".repeat(MAX_RECORD_LENGTH) + "\n"
+                + "d,true\n"
+                + "\"e,false\n";
+
+        ImportReport report = services.importTasks(input(csv), BulkFormat.CSV);
+
+        assertEquals(5, report.getRecords());
+        assertEquals(2, report.getAccepted());
+        assertEquals(3, report.getRejected());
+        assertEquals(List.of(2L, 3L, 5L), report.getRejects().stream().map(ImportReport.Reject::getRecord).sorted().toList());
+        assertNotNull(taskStore.findByName("a", List.of()));
+        assertNotNull(taskStore.findByName("d", List.of()));
+    }
+
+    @Test
+    void rejectsAnUnreadableHeaderAsTheOnlyRecord() throws IOException {
+        ImportReport report = services.importTasks(input("\"name\n"), BulkFormat.CSV);
+
+        assertEquals(1, report.getRecords());
+        assertEquals(1, report.getRejected());
+        assertTrue(report.getRejects().get(0).getError().startsWith("Unreadable header"));
+    }
+
+    @Test
+    void rejectsInvalidAndOverlongNdjsonLines() throws IOException {
+        String ndjson = "{\"name\":\"a\"}\n"
+                + "{not json}\n"
+                + "{\"name\":\"" + "x".repeat(MAX_RECORD_LENGTH) + "\"}\n"
+                + "\n"
+                + "{\"name\":\"b\"}\r\n";
+
+        ImportReport report = services.importTasks(input(ndjson), BulkFormat.NDJSON);
+
+        assertEquals(4, report.getRecords());
+        assertEquals(2, report.getAccepted());
+        assertEquals(2, report.getRejected());
+        assertNotNull(taskStore.findByName("b", List.of()));
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
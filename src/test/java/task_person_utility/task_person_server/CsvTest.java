@@ -0,0 +1,95 @@
+package task_person_utility.task_person_server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvTest {
+
+    private static final int MAX_LENGTH = 64;
+
+    @Test
+    void readsQuotedCommasDoubledQuotesAndLineBreaks() throws IOException {
+        BufferedReader in = reader("a,\"b,c\",\"say \"\"hi\"\"\",\"two\nlines\"\n");
+
+        assertEquals(List.of("a", "b,c", "say \"hi\"", "two\nlines"), Csv.readRecord(in, MAX_LENGTH));
+        assertNull(Csv.readRecord(in, MAX_LENGTH));
+    }
+
+    @Test
+    void readsEmptyFieldsAndCrLfLineEnds() throws IOException {
+        BufferedReader in = reader(",x,\r\n\"\",y\r\nlast");
+
+        assertEquals(List.of("", "x", ""), Csv.readRecord(in, MAX_LENGTH));
+        assertEquals(List.of("", "y"), Csv.readRecord(in, MAX_LENGTH));
+        assertEquals(List.of("last"), Csv.readRecord(in, MAX_LENGTH));
+        assertNull(Csv.readRecord(in, MAX_LENGTH));
+    }
+
+    @Test
+    void keepsACarriageReturnInsideQuotes() throws IOException {
+        assertEquals(List.of("a\r\nb"), Csv.readRecord(reader("\"a\r\nb\"\n"), MAX_LENGTH));
+    }
+
+    @Test
+    void writesWhatItReads() throws IOException {
+        List<String> fields = Arrays.asList("plain", "comma,inside", "quote\"inside", "line\nbreak", "cr\rinside", "",
+                null);
+        StringWriter out = new StringWriter();
+
+        Csv.writeRecord(out, fields);
+
+        assertEquals("plain,\"comma,inside\",\"quote\"\"inside\",\"line\nbreak\",\"cr\rinside\",,\n", out.toString());
+        assertEquals(Arrays.asList("plain", "comma,inside", "quote\"inside", "line\nbreak", "cr\rinside", "", ""),
+                Csv.readRecord(reader(out.toString()), MAX_LENGTH));
+    }
+
+    @Test
+    void rejectsAQuoteLeftOpenAtTheEnd() throws IOException {
+        BufferedReader in = reader("ok\n\"open");
+
+        assertEquals(List.of("ok"), Csv.readRecord(in, MAX_LENGTH));
+        Csv.MalformedRecordException e = assertThrows(Csv.MalformedRecordException.class,
+                () -> Csv.readRecord(in, MAX_LENGTH));
+        assertEquals("Unterminated quoted field", e.getMessage());
+        assertNull(Csv.readRecord(in, MAX_LENGTH));
+    }
+
+    @Test
+    void rejectsAnOverlongRecordAndGoesOnWithTheNextLine() throws IOException {
+        BufferedReader in = reader("x".repeat(MAX_LENGTH + 10) + "\nnext\n");
+
+        assertThrows(Csv.MalformedRecordException.class, () -> Csv.readRecord(in, MAX_LENGTH));
+        assertEquals(List.of("next"), Csv.readRecord(in, MAX_LENGTH));
+    }
+
+    @Test
+    void boundsAStrayQuoteByTheRecordLength() throws IOException {
+        StringBuilder text = new StringBuilder("\"stray,1\n");
+        for (int i = 0; i < 20; i++) {
+            text.append("row").append(i).append(",1\n");
+        }
+        BufferedReader in = reader(text.toString());
+
+        assertThrows(Csv.MalformedRecordException.class, () -> Csv.readRecord(in, MAX_LENGTH));
+        List<List<String>> rest = new ArrayList<>();
+        for (List<String> record = Csv.readRecord(in, MAX_LENGTH); record != null; record = Csv.readRecord(in, MAX_LENGTH)) {
+            rest.add(record);
+        }
+        assertEquals(List.of("row19", "1"), rest.get(rest.size() - 1));
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}
@@ -0,0 +1,80 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldChangesTest {
+
+    @Test
+    void appliesOnlyTheFieldsTheRequestChanges() {
+        Task current = task("d", false, null);
+        Task requested = task("new", false, null);
+        Task updated = InMemoryTaskStore.copy(current);
+
+        InMemoryTaskStore.FieldChanges<Task> changes = diff(current, requested, current, updated);
+
+        assertTrue(changes.hasChanges());
+        assertFalse(changes.hasConflict());
+        assertEquals("new", updated.getDescription());
+    }
+
+    @Test
+    void keepsAConcurrentChangeToAFieldTheRequestLeftAlone() {
+        ObjectId reassigned = new ObjectId();
+        Task current = task("d", false, null);
+        Task stored = task("d", false, reassigned);
+        Task requested = task("d", true, null);
+        Task updated = InMemoryTaskStore.copy(stored);
+
+        InMemoryTaskStore.FieldChanges<Task> changes = diff(current, requested, stored, updated);
+
+        assertFalse(changes.hasConflict());
+        assertTrue(updated.getDone());
+        assertEquals(reassigned, updated.getPersonAssignedId());
+    }
+
+    @Test
+    void conflictsWhenAChangedFieldMovedUnderneath() {
+        Task current = task("d", false, null);
+        Task stored = task("other", false, null);
+        Task requested = task("new", false, null);
+
+        InMemoryTaskStore.FieldChanges<Task> changes =
+                diff(current, requested, stored, InMemoryTaskStore.copy(stored));
+
+        assertTrue(changes.hasConflict());
+    }
+
+    @Test
+    void reportsNoChangesForAnIdenticalRequest() {
+        Task current = task("d", true, new ObjectId());
+
+        InMemoryTaskStore.FieldChanges<Task> changes =
+                diff(current, InMemoryTaskStore.copy(current), current, InMemoryTaskStore.copy(current));
+
+        assertFalse(changes.hasChanges());
+        assertFalse(changes.hasConflict());
+    }
+
+    @Test
+    void checksTheVersionOnlyWhenTheRequestSendsOne() {
+        assertTrue(InMemoryTaskStore.FieldChanges.versionMatches(3L, 2L, null));
+        assertTrue(InMemoryTaskStore.FieldChanges.versionMatches(2L, 2L, 2L));
+        assertFalse(InMemoryTaskStore.FieldChanges.versionMatches(3L, 2L, 2L));
+    }
+
+    private static InMemoryTaskStore.FieldChanges<Task> diff(Task current, Task requested, Task stored, Task updated) {
+        return new InMemoryTaskStore.FieldChanges<>(current, requested, stored, updated)
+                .field(Task::getDescription, Task::setDescription)
+                .field(Task::getDone, Task::setDone)
+                .field(Task::getPersonAssignedId, Task::setPersonAssignedId);
+    }
+
+    private static Task task(String description, boolean done, ObjectId personId) {
+        return new Task(null, "t", description, null, done, personId);
+    }
+}
@@ -0,0 +1,81 @@
+package task_person_utility.task_person_server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InMemoryPersonStoreTest {
+
+    private final InMemoryPersonStore store = new InMemoryPersonStore(4);
+
+    @Test
+    void incrementsTheLeastLoadedAvailablePerson() {
+        store.insert(person("busy", true, 3, null));
+        store.insert(person("idle", true, 1, null));
+        store.insert(person("away", false, 0, null));
+
+        Person claimed = store.incrementLeastLoaded(false, null);
+
+        assertEquals("idle", claimed.getName());
+        assertEquals(2, claimed.getTasksAssignedNumber());
+        assertEquals(2, store.findByName("idle", List.of()).getTasksAssignedNumber());
+    }
+
+    @Test
+    void keepsToThePartitionWhenPartitioned() {
+        store.insert(person("eu", true, 5, "eu"));
+        store.insert(person("us", true, 0, "us"));
+
+        assertEquals("eu", store.incrementLeastLoaded(true, "eu").getName());
+        assertNull(store.incrementLeastLoaded(true, "apac"));
+    }
+
+    @Test
+    void dropsAPersonWhoBecameUnavailableFromTheLoadIndex() {
+        store.insert(person("p", true, 0, null));
+
+        Map<Integer, String> errors = store.updateAvailabilityByName(List.of(person("p", false, 0, null)));
+
+        assertEquals(Map.of(), errors);
+        assertFalse(store.findByName("p", List.of()).getAvailability());
+        assertNull(store.incrementLeastLoaded(false, null));
+    }
+
+    @Test
+    void reportsMissingNamesOfABatchUpdate() {
+        store.insert(person("p", true, 0, null));
+
+        Map<Integer, String> errors = store.updateAvailabilityByName(
+                List.of(person("p", false, 0, null), person("missing", false, 0, null)));
+
+        assertEquals(Set.of(1), errors.keySet());
+    }
+
+    @Test
+    void setsOnlyCountsThatStillHoldTheObservedValue() {
+        Person kept = person("kept", true, 2, null);
+        Person moved = person("moved", true, 2, null);
+        store.insert(kept);
+        store.insert(moved);
+        store.incrementCount(moved.getId(), 1, false);
+
+        long set = store.setCountsIfUnchanged(Map.of(kept.getId(), 2, moved.getId(), 2),
+                Map.of(kept.getId(), 0, moved.getId(), 0), AssignmentLease.NO_LEASE);
+
+        assertEquals(1, set);
+        assertEquals(0, store.findByName("kept", List.of()).getTasksAssignedNumber());
+        assertEquals(3, store.findByName("moved", List.of()).getTasksAssignedNumber());
+    }
+
+    private static Person person(String name, boolean available, int count, String partition) {
+        Person person = new Person(null, name, available, count);
+        person.setPartition(partition);
+        return person;
+    }
+}
@@ -0,0 +1,132 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryTaskStoreTest {
+
+    private final InMemoryTaskStore store = new InMemoryTaskStore(4);
+
+    @Test
+    void rejectsADuplicateName() {
+        store.insert(new Task("t"));
+
+        MongoException me = assertThrows(MongoException.class, () -> store.insert(new Task("t")));
+        assertEquals(11000, me.getCode());
+    }
+
+    @Test
+    void handsOutCopies() {
+        store.insert(new Task(null, "t", "original", null, false, null));
+
+        store.findByName("t", List.of()).setDescription("changed");
+
+        assertEquals("original", store.findByName("t", List.of()).getDescription());
+    }
+
+    @Test
+    void indexesOpenTasksByAssigneeAndLeavesDoneOnesOut() {
+        ObjectId personId = new ObjectId();
+        store.insert(new Task(null, "open", null, null, false, personId));
+        store.insert(new Task(null, "done", null, null, true, personId));
+        store.insert(new Task(null, "unassigned", null, null, false, null));
+
+        assertEquals(List.of("open"), names(store.findOpenByAssignee(personId)));
+        assertEquals(List.of("unassigned"), names(store.findOpenByAssignee(null)));
+        assertEquals(Map.of(personId, 1), store.countOpenByAssignee());
+        assertEquals(2, store.findOpenForAssignment().size());
+    }
+
+    @Test
+    void movesAReassignedTaskBetweenIndexes() {
+        ObjectId personId = new ObjectId();
+        store.insert(new Task("t"));
+
+        store.setAssignee("t", personId);
+
+        assertTrue(store.findOpenByAssignee(null).isEmpty());
+        assertEquals(List.of("t"), names(store.findOpenByAssignee(personId)));
+        assertEquals(1, store.findOpenForAssignment().size());
+    }
+
+    @Test
+    void reportsMissingNamesOfABatchUpdate() {
+        store.insert(new Task("kept"));
+        Task renamed = new Task("kept");
+        renamed.setDescription("updated");
+
+        Map<Integer, String> errors = store.updateAllByName(List.of(new Task("missing"), renamed));
+
+        assertEquals(Set.of(0), errors.keySet());
+        assertEquals("updated", store.findByName("kept", List.of()).getDescription());
+    }
+
+    @Test
+    void keepsTheAssigneeOfABatchUpdateThatNamesNone() {
+        ObjectId personId = new ObjectId();
+        ObjectId otherId = new ObjectId();
+        store.insert(new Task(null, "kept", null, null, false, personId));
+        store.insert(new Task(null, "moved", null, null, false, personId));
+
+        store.updateAllByName(List.of(new Task(null, "kept", "d", null, false, null),
+                new Task(null, "moved", "d", null, false, otherId)));
+
+        assertEquals(personId, store.findByName("kept", List.of()).getPersonAssignedId());
+        assertEquals(otherId, store.findByName("moved", List.of()).getPersonAssignedId());
+    }
+
+    @Test
+    void deletesOnlyTasksStillCompletedBeforeTheCutoff() {
+        Task old = new Task(null, "old", null, null, true, null);
+        old.setDateOfCompletion(LocalDate.of(2024, 1, 1));
+        Task recent = new Task(null, "recent", null, null, true, null);
+        recent.setDateOfCompletion(LocalDate.of(2024, 6, 1));
+        store.insert(old);
+        store.insert(recent);
+
+        Set<ObjectId> deleted = store.deleteCompletedBefore(List.of(old.getId(), recent.getId()), LocalDate.of(2024, 3, 1));
+
+        assertEquals(Set.of(old.getId()), deleted);
+        assertNull(store.findByName("old", List.of()));
+        assertNotNull(store.findByName("recent", List.of()));
+    }
+
+    @Test
+    void findsTheOldestCompletionsFirst() {
+        for (int day = 5; day >= 1; day--) {
+            Task task = new Task(null, "t" + day, null, null, true, null);
+            task.setDateOfCompletion(LocalDate.of(2024, 1, day));
+            store.insert(task);
+        }
+
+        List<Task> batch = store.findCompletedBefore(LocalDate.of(2024, 1, 5), 3);
+
+        assertEquals(List.of("t1", "t2", "t3"), names(batch));
+    }
+
+    @Test
+    void datesCompletionOfInsertedDoneTasks() {
+        store.insert(new Task(null, "done", null, null, true, null));
+        store.insert(new Task(null, "open", null, null, false, null));
+
+        assertEquals(LocalDate.now(), store.findByName("done", List.of()).getDateOfCompletion());
+        assertNull(store.findByName("open", List.of()).getDateOfCompletion());
+        assertEquals(0, store.dateUndatedCompletions(LocalDate.now()));
+    }
+
+    private static List<String> names(List<Task> tasks) {
+        return tasks.stream().map(Task::getName).toList();
+    }
+}
@@ -0,0 +1,83 @@
+package task_person_utility.task_person_server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemorySnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    private final CountingScheduler assignmentScheduler = new CountingScheduler();
+
+    @AfterEach
+    void shutdown() {
+        assignmentScheduler.shutdown();
+    }
+
+    @Test
+    void restoresSavedStoresAndRequestsReconciliation() {
+        InMemoryPersonStore personStore = new InMemoryPersonStore(4);
+        InMemoryTaskStore taskStore = new InMemoryTaskStore(4);
+        personStore.insert(new Person(null, "alice", true, 1));
+        taskStore.insert(new Task(null, "write", "docs", null, false, null));
+        snapshots(personStore, taskStore, new InMemoryTaskArchive()).save();
+
+        InMemoryPersonStore restoredPersons = new InMemoryPersonStore(4);
+        InMemoryTaskStore restoredTasks = new InMemoryTaskStore(4);
+        snapshots(restoredPersons, restoredTasks, new InMemoryTaskArchive()).start();
+
+        assertEquals(1, restoredPersons.findByName("alice", List.of()).getTasksAssignedNumber());
+        assertEquals("docs", restoredTasks.findByName("write", List.of()).getDescription());
+        assertEquals(1, assignmentScheduler.reconciles);
+    }
+
+    @Test
+    void skipsAnUnreadableFileAndMovesItAside() throws IOException {
+        InMemoryPersonStore personStore = new InMemoryPersonStore(4);
+        personStore.insert(new Person(null, "alice", true, 0));
+        snapshots(personStore, new InMemoryTaskStore(4), new InMemoryTaskArchive()).save();
+        Path tasks = directory.resolve("tasks.bson");
+        Files.write(tasks, new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0x7f, 1, 2, 3});
+
+        InMemoryPersonStore restoredPersons = new InMemoryPersonStore(4);
+        InMemoryTaskStore restoredTasks = new InMemoryTaskStore(4);
+        snapshots(restoredPersons, restoredTasks, new InMemoryTaskArchive()).start();
+
+        assertNotNull(restoredPersons.findByName("alice", List.of()));
+        assertNull(restoredTasks.findByName("write", List.of()));
+        assertFalse(Files.exists(tasks));
+        assertTrue(Files.exists(directory.resolve("tasks.bson.unreadable")));
+    }
+
+    private MemorySnapshots snapshots(PersonStore personStore, TaskStore taskStore, TaskArchive taskArchive) {
+        return new MemorySnapshots(personStore, taskStore, taskArchive, assignmentScheduler, directory.toString(), 0);
+    }
+
+    private static class CountingScheduler extends AssignmentScheduler {
+
+        private int reconciles;
+
+        CountingScheduler() {
+            super(null, null, 0, 0, 0);
+        }
+
+        @Override
+        public boolean requestReconcile() {
+            reconciles++;
+            return true;
+        }
+    }
+}
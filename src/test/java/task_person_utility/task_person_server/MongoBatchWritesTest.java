@@ -0,0 +1,95 @@
+package task_person_utility.task_person_server;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class MongoBatchWritesTest {
+
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Task> collection = mock(MongoCollection.class);
+
+    @Test
+    void insertAllReportsEachFailedDocumentByIndex() {
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenThrow(bulkWriteException(writeError(1, "E11000 duplicate key"), writeError(3, "too large")));
+
+        Map<Integer, String> errors = MongoBatchWrites.insertAll(collection,
+                List.of(new Task("a"), new Task("b"), new Task("c"), new Task("d")));
+
+        assertEquals(Map.of(1, "E11000 duplicate key", 3, "too large"), errors);
+    }
+
+    @Test
+    void insertAllFailsEveryDocumentWhenTheWholeWriteFails() {
+        when(collection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenThrow(new MongoSocketReadException("connection reset", new ServerAddress()));
+
+        Map<Integer, String> errors = MongoBatchWrites.insertAll(collection, List.of(new Task("a"), new Task("b")));
+
+        assertEquals(Map.of(0, "connection reset", 1, "connection reset"), errors);
+    }
+
+    @Test
+    void bulkWriteReportsEachFailedWriteByIndex() {
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenThrow(bulkWriteException(writeError(0, "E11000 duplicate key")));
+
+        Map<Integer, String> errors = MongoBatchWrites.bulkWrite(collection, List.of(rename("a"), rename("b")));
+
+        assertEquals(Map.of(0, "E11000 duplicate key"), errors);
+    }
+
+    @Test
+    void bulkWriteFailsEveryWriteWhenTheWholeWriteFails() {
+        when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenThrow(new MongoSocketReadException("connection reset", new ServerAddress()));
+
+        Map<Integer, String> errors = MongoBatchWrites.bulkWrite(collection, List.of(rename("a"), rename("b")));
+
+        assertEquals(Map.of(0, "connection reset", 1, "connection reset"), errors);
+    }
+
+    @Test
+    void skipsEmptyBatches() {
+        assertTrue(MongoBatchWrites.insertAll(collection, List.of()).isEmpty());
+        assertTrue(MongoBatchWrites.bulkWrite(collection, List.of()).isEmpty());
+        verifyNoInteractions(collection);
+    }
+
+    private static WriteModel<Task> rename(String name) {
+        return new UpdateOneModel<>(Filters.eq("name", name), Updates.set("name", name + "-renamed"));
+    }
+
+    private static BulkWriteError writeError(int index, String message) {
+        return new BulkWriteError(11000, message, new BsonDocument(), index);
+    }
+
+    private static MongoBulkWriteException bulkWriteException(BulkWriteError... errors) {
+        return new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(errors), null,
+                new ServerAddress(), Set.of());
+    }
+}
@@ -0,0 +1,82 @@
+package task_person_utility.task_person_server;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonDouble;
+import org.bson.BsonInt64;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonCodecTest {
+
+    private final PersonCodec codec = new PersonCodec();
+
+    @Test
+    void roundTripsEveryField() {
+        Person person = new Person(new ObjectId(), "ada", true, 4);
+        person.setVersion(2L);
+        person.setPartition("eu");
+
+        Person decoded = decode(encode(person));
+
+        assertEquals(person.getId(), decoded.getId());
+        assertEquals("ada", decoded.getName());
+        assertTrue(decoded.getAvailability());
+        assertEquals(4, decoded.getTasksAssignedNumber());
+        assertEquals(2L, decoded.getVersion());
+        assertEquals("eu", decoded.getPartition());
+    }
+
+    @Test
+    void readsCountsWrittenAsLongOrDouble() {
+        assertEquals(5, decode(new BsonDocument("tasksAssignedNumber", new BsonInt64(5))).getTasksAssignedNumber());
+        assertEquals(6, decode(new BsonDocument("tasksAssignedNumber", new BsonDouble(6.0))).getTasksAssignedNumber());
+    }
+
+    @Test
+    void decodesAProjectionWithMissingFieldsAsZeroValues() {
+        Person decoded = decode(new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("name", new BsonString("ada")));
+
+        assertEquals("ada", decoded.getName());
+        assertFalse(decoded.getAvailability());
+        assertEquals(0, decoded.getTasksAssignedNumber());
+        assertNull(decoded.getVersion());
+        assertNull(decoded.getPartition());
+    }
+
+    @Test
+    void generatesAnIdOnlyWhenMissing() {
+        Person person = new Person("ada");
+        assertFalse(codec.documentHasId(person));
+        assertThrows(IllegalStateException.class, () -> codec.getDocumentId(person));
+
+        codec.generateIdIfAbsentFromDocument(person);
+        ObjectId id = person.getId();
+        codec.generateIdIfAbsentFromDocument(person);
+
+        assertTrue(codec.documentHasId(person));
+        assertEquals(id, person.getId());
+    }
+
+    private BsonDocument encode(Person person) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), person, EncoderContext.builder().build());
+        return document;
+    }
+
+    private Person decode(BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
@@ -0,0 +1,70 @@
+package task_person_utility.task_person_server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersonLoadHeapTest {
+
+    @Test
+    void takesTheLowestCount() {
+        PersonLoadHeap loads = new PersonLoadHeap(new int[]{5, 2, 7, 3});
+
+        assertEquals(1, loads.minSlot());
+        assertEquals(2, loads.count(loads.minSlot()));
+    }
+
+    @Test
+    void breaksTiesTowardTheHigherSlot() {
+        PersonLoadHeap loads = new PersonLoadHeap(new int[]{1, 1, 1, 4});
+
+        assertEquals(2, loads.minSlot());
+    }
+
+    @Test
+    void reordersOnIncrementAndDecrement() {
+        PersonLoadHeap loads = new PersonLoadHeap(new int[]{0, 0, 0});
+
+        loads.increment(2);
+        assertEquals(1, loads.minSlot());
+        loads.increment(1);
+        assertEquals(0, loads.minSlot());
+        loads.increment(0);
+        assertEquals(2, loads.minSlot());
+        loads.decrement(0);
+        assertEquals(0, loads.minSlot());
+        assertEquals(0, loads.count(0));
+    }
+
+    @Test
+    void matchesALinearScanOverManyUpdates() {
+        int[] counts = {3, 1, 4, 1, 5, 9, 2, 6, 5, 3};
+        int[] expected = counts.clone();
+        PersonLoadHeap loads = new PersonLoadHeap(counts);
+        for (int step = 0; step < 200; step++) {
+            int slot = (step * 7) % expected.length;
+            if (step % 3 == 0 && expected[slot] > 0) {
+                loads.decrement(slot);
+                expected[slot]--;
+            } else {
+                loads.increment(slot);
+                expected[slot]++;
+            }
+            int min = 0;
+            for (int i = 0; i < expected.length; i++) {
+                if (expected[i] <= expected[min]) {
+                    min = i;
+                }
+            }
+            assertEquals(min, loads.minSlot());
+        }
+    }
+
+    @Test
+    void isEmptyWithoutSlots() {
+        assertTrue(new PersonLoadHeap(new int[0]).isEmpty());
+        assertFalse(new PersonLoadHeap(new int[1]).isEmpty());
+    }
+}
@@ -0,0 +1,37 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StripedLocksTest {
+
+    @Test
+    void givesTheSameKeyTheSameLock() {
+        StripedLocks locks = new StripedLocks(64);
+        ObjectId id = new ObjectId();
+
+        assertSame(locks.lockFor(id), locks.lockFor(new ObjectId(id.toHexString())));
+    }
+
+    @Test
+    void roundsTheStripesUpToAPowerOfTwo() {
+        assertEquals(64, distinctLocks(new StripedLocks(64)));
+        assertEquals(128, distinctLocks(new StripedLocks(65)));
+        assertEquals(2, distinctLocks(new StripedLocks(0)));
+    }
+
+    private static int distinctLocks(StripedLocks locks) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int key = 0; key < 100_000; key++) {
+            seen.add(locks.lockFor(key));
+        }
+        return seen.size();
+    }
+}
@@ -0,0 +1,126 @@
+package task_person_utility.task_person_server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskArchiverTest {
+
+    private static final int AGE_DAYS = 30;
+
+    private final InMemoryTaskArchive taskArchive = new InMemoryTaskArchive();
+    private final InMemoryPersonStore personStore = new InMemoryPersonStore(4);
+    private TaskArchiver archiver;
+
+    @AfterEach
+    void shutdown() {
+        archiver.shutdown();
+    }
+
+    @Test
+    void movesOnlyTasksCompletedBeforeTheAgeInBatches() {
+        InMemoryTaskStore taskStore = new InMemoryTaskStore(4);
+        archiver = archiver(taskStore, 2);
+        for (int i = 0; i < 5; i++) {
+            taskStore.insert(completed("old" + i, AGE_DAYS + 1 + i));
+        }
+        taskStore.insert(completed("recent", 1));
+        taskStore.insert(new Task(null, "open", null, null, false, null));
+
+        assertEquals(5, archiver.archive());
+
+        assertEquals(Set.of("old0", "old1", "old2", "old3", "old4"), archivedNames());
+        assertNull(taskStore.findByName("old0", List.of()));
+        assertNotNull(taskStore.findByName("recent", List.of()));
+        assertNotNull(taskStore.findByName("open", List.of()));
+        assertEquals(0, archiver.archive());
+    }
+
+    @Test
+    void datesUndatedCompletionsAndArchivesThemOnceOldEnough() {
+        InMemoryTaskStore taskStore = new InMemoryTaskStore(4);
+        archiver = archiver(taskStore, 10);
+        taskStore.insert(new Task(null, "done", null, null, false, null));
+        taskStore.updateAllByName(List.of(new Task(null, "done", null, null, true, null)));
+        assertNull(taskStore.findByName("done", List.of()).getDateOfCompletion());
+
+        assertEquals(0, archiver.archive());
+        assertEquals(LocalDate.now(), taskStore.findByName("done", List.of()).getDateOfCompletion());
+    }
+
+    @Test
+    void dropsTheCopiesOfTasksReopenedOrDeletedDuringThePass() {
+        InMemoryTaskStore taskStore = new InMemoryTaskStore(4) {
+            @Override
+            public List<Task> findCompletedBefore(LocalDate cutoff, int limit) {
+                List<Task> batch = super.findCompletedBefore(cutoff, limit);
+                // Concurrent writers between the read and the guarded delete
+                Task reopened = findByName("reopened", List.of());
+                if (reopened != null && reopened.getDone()) {
+                    reopened.setDone(false);
+                    updateAllByName(List.of(reopened));
+                }
+                deleteByName("deleted");
+                return batch;
+            }
+        };
+        archiver = archiver(taskStore, 10);
+        taskStore.insert(completed("archived", AGE_DAYS + 5));
+        taskStore.insert(completed("reopened", AGE_DAYS + 5));
+        taskStore.insert(completed("deleted", AGE_DAYS + 5));
+
+        assertEquals(1, archiver.archive());
+
+        assertEquals(Set.of("archived"), archivedNames());
+        assertFalse(taskStore.findByName("reopened", List.of()).getDone());
+    }
+
+    @Test
+    void pagesArchivedTasksOfAPerson() {
+        InMemoryTaskStore taskStore = new InMemoryTaskStore(4);
+        archiver = archiver(taskStore, 10);
+        Person person = new Person(null, "p", true, 0);
+        personStore.insert(person);
+        for (int i = 0; i < 3; i++) {
+            Task task = completed("mine" + i, AGE_DAYS + 1);
+            task.setPersonAssignedId(person.getId());
+            taskStore.insert(task);
+        }
+        taskStore.insert(completed("other", AGE_DAYS + 1));
+        archiver.archive();
+
+        Page<Task> first = archiver.getArchivedTasksPage(null, 2, "p");
+        Page<Task> second = archiver.getArchivedTasksPage(first.getNext(), 2, "p");
+
+        assertEquals(2, first.getItems().size());
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNext());
+        assertTrue(archiver.getArchivedTasksPage(null, 2, "nobody").getItems().isEmpty());
+    }
+
+    private TaskArchiver archiver(InMemoryTaskStore taskStore, int batchSize) {
+        return new TaskArchiver(taskStore, taskArchive, personStore, new EntityCache<>(false, 0, Duration.ZERO),
+                AGE_DAYS, batchSize, 0);
+    }
+
+    private Set<String> archivedNames() {
+        return taskArchive.streamAll().map(Task::getName).collect(Collectors.toSet());
+    }
+
+    private static Task completed(String name, int daysAgo) {
+        Task task = new Task(null, name, null, null, true, null);
+        task.setDateOfCompletion(LocalDate.now().minusDays(daysAgo));
+        return task;
+    }
+}
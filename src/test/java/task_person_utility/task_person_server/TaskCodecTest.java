@@ -0,0 +1,125 @@
+package task_person_utility.task_person_server;
+
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt32;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskCodecTest {
+
+    private final TaskCodec codec = new TaskCodec();
+
+    @Test
+    void roundTripsEveryField() {
+        Task task = new Task(new ObjectId(), "write docs", "all of them", LocalDate.of(2024, 2, 29), true,
+                new ObjectId());
+        task.setDateOfCompletion(LocalDate.of(2024, 3, 1));
+        task.setVersion(7L);
+        task.setPartition("eu");
+
+        Task decoded = decode(encode(task));
+
+        assertEquals(task.getId(), decoded.getId());
+        assertEquals("write docs", decoded.getName());
+        assertEquals("all of them", decoded.getDescription());
+        assertEquals(LocalDate.of(2024, 2, 29), decoded.getDateOfCreation());
+        assertTrue(decoded.getDone());
+        assertEquals(LocalDate.of(2024, 3, 1), decoded.getDateOfCompletion());
+        assertEquals(task.getPersonAssignedId(), decoded.getPersonAssignedId());
+        assertEquals(7L, decoded.getVersion());
+        assertEquals("eu", decoded.getPartition());
+    }
+
+    @Test
+    void writesDatesAsUtcMidnightLikeThePojoCodec() {
+        Task task = new Task(null, "t", null, LocalDate.of(2024, 1, 15), false, null);
+
+        BsonDocument document = encode(task);
+
+        assertEquals(LocalDate.of(2024, 1, 15).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli(),
+                document.getDateTime("dateOfCreation").getValue());
+    }
+
+    @Test
+    void leavesOutNullFields() {
+        Task task = new Task(null, "t", null, null, false, null);
+
+        BsonDocument document = encode(task);
+
+        assertEquals(2, document.size());
+        assertEquals(new BsonString("t"), document.get("name"));
+        assertEquals(BsonBoolean.FALSE, document.get("done"));
+    }
+
+    @Test
+    void decodesAProjectionWithMissingFieldsAsNull() {
+        ObjectId personId = new ObjectId();
+        BsonDocument projected = new BsonDocument("_id", new BsonObjectId(new ObjectId()))
+                .append("name", new BsonString("t"))
+                .append("personAssignedId", new BsonObjectId(personId));
+
+        Task decoded = decode(projected);
+
+        assertEquals("t", decoded.getName());
+        assertEquals(personId, decoded.getPersonAssignedId());
+        assertNull(decoded.getDescription());
+        assertNull(decoded.getDateOfCreation());
+        assertFalse(decoded.getDone());
+        assertNull(decoded.getVersion());
+    }
+
+    @Test
+    void skipsNullsAndUnknownFieldsAndReadsIntVersions() {
+        BsonDocument legacy = new BsonDocument("name", new BsonString("t"))
+                .append("description", BsonNull.VALUE)
+                .append("personAssigned", new BsonDocument("name", new BsonString("old")))
+                .append("dateOfCreation", new BsonDateTime(0))
+                .append("version", new BsonInt32(3));
+
+        Task decoded = decode(legacy);
+
+        assertNull(decoded.getDescription());
+        assertEquals(LocalDate.of(1970, 1, 1), decoded.getDateOfCreation());
+        assertEquals(3L, decoded.getVersion());
+    }
+
+    @Test
+    void stampsStoredDocumentsAsServerWrites() {
+        Task task = new Task(null, "t", null, null, false, null);
+        BsonDocument stored = new BsonDocument();
+
+        codec.encode(new BsonDocumentWriter(stored), task,
+                EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+
+        assertTrue(stored.isObjectId(ChangeStreamWatcher.SERVER_WRITE_FIELD));
+        assertFalse(encode(task).containsKey(ChangeStreamWatcher.SERVER_WRITE_FIELD));
+        assertEquals("t", decode(stored).getName());
+    }
+
+    private BsonDocument encode(Task task) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), task, EncoderContext.builder().build());
+        return document;
+    }
+
+    private Task decode(BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
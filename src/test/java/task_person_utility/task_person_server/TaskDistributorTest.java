@@ -0,0 +1,109 @@
+package task_person_utility.task_person_server;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskDistributorTest {
+
+    @Test
+    void spreadsUnassignedTasksStartingWithTheHigherSlotOnATie() {
+        Person a = person("a", true, 0);
+        Person b = person("b", true, 0);
+        List<Task> tasks = tasks(4, null);
+        AssignmentSnapshot snapshot = new AssignmentSnapshot(List.of(a, b), tasks);
+
+        new TaskDistributor(snapshot).distribute(false);
+
+        assertEquals(b.getId(), tasks.get(0).getPersonAssignedId());
+        assertEquals(2, snapshot.getCountDelta(a));
+        assertEquals(2, snapshot.getCountDelta(b));
+    }
+
+    @Test
+    void movesOneTaskOfTheMostLoadedPersonPerRun() {
+        Person a = person("a", true, 3);
+        Person b = person("b", true, 0);
+        List<Task> tasks = tasks(3, a.getId());
+        tasks.addAll(tasks(1, null));
+        AssignmentSnapshot snapshot = new AssignmentSnapshot(List.of(a, b), tasks);
+
+        new TaskDistributor(snapshot).distribute(false);
+
+        assertEquals(-1, snapshot.getCountDelta(a));
+        assertEquals(2, snapshot.getCountDelta(b));
+    }
+
+    @Test
+    void leavesATaskUnassignedWhenEveryoneHoldsTheShare() {
+        Person a = person("a", true, 2);
+        Person b = person("b", true, 2);
+        List<Task> tasks = tasks(2, a.getId());
+        tasks.addAll(tasks(2, b.getId()));
+        Task extra = tasks(1, null).get(0);
+        tasks.add(extra);
+        AssignmentSnapshot snapshot = new AssignmentSnapshot(List.of(a, b), tasks);
+
+        new TaskDistributor(snapshot).distribute(false);
+
+        assertNull(extra.getPersonAssignedId());
+        assertTrue(snapshot.getChangedTasks().isEmpty());
+    }
+
+    @Test
+    void movesEveryTaskAwayFromNotAvailablePersons() {
+        Person a = person("a", true, 0);
+        Person gone = person("gone", false, 2);
+        List<Task> tasks = tasks(2, gone.getId());
+        AssignmentSnapshot snapshot = new AssignmentSnapshot(List.of(a, gone), tasks);
+
+        new TaskDistributor(snapshot).distribute(false);
+
+        assertEquals(2, snapshot.getCountDelta(a));
+        assertEquals(-2, snapshot.getCountDelta(gone));
+    }
+
+    @Test
+    void forcedRunBalancesWithinOneTask() {
+        Person a = person("a", true, 3);
+        Person b = person("b", true, 0);
+        List<Task> tasks = tasks(3, a.getId());
+        AssignmentSnapshot snapshot = new AssignmentSnapshot(List.of(a, b), tasks);
+
+        new TaskDistributor(snapshot).distribute(true);
+
+        int countA = 3 + snapshot.getCountDelta(a);
+        int countB = snapshot.getCountDelta(b);
+        assertEquals(3, countA + countB);
+        assertTrue(Math.abs(countA - countB) <= 1);
+    }
+
+    @Test
+    void doesNothingWithoutAvailablePersons() {
+        Person gone = person("gone", false, 1);
+        List<Task> tasks = tasks(1, gone.getId());
+        AssignmentSnapshot snapshot = new AssignmentSnapshot(List.of(gone), tasks);
+
+        new TaskDistributor(snapshot).distribute(true);
+
+        assertTrue(snapshot.getChangedTasks().isEmpty());
+    }
+
+    private static Person person(String name, boolean available, int count) {
+        return new Person(new ObjectId(), name, available, count);
+    }
+
+    private static List<Task> tasks(int count, ObjectId personId) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task(new ObjectId(), "task-" + new ObjectId(), null, null, false, personId));
+        }
+        return tasks;
+    }
+}